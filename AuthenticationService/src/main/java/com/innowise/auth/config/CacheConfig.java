@@ -0,0 +1,28 @@
+package com.innowise.auth.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Usernames of recently looked-up users. Kept short-lived because entries are never evicted
+     * on write; a stale name is served for at most the TTL.
+     */
+    @Bean
+    public Cache<UUID, String> usernameCache(
+            @Value("${auth.username-cache.max-size:10000}") long maxSize,
+            @Value("${auth.username-cache.ttl:PT5M}") Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+}
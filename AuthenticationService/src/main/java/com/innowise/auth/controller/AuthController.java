@@ -3,6 +3,7 @@ package com.innowise.auth.controller;
 import com.innowise.auth.dto.AuthResponse;
 import com.innowise.auth.dto.LoginRequest;
 import com.innowise.auth.dto.RegisterRequest;
+import com.innowise.auth.dto.UserLookupRequest;
 import com.innowise.auth.dto.ValidationResponse;
 import com.innowise.auth.exception.RefreshTokenException;
 import com.innowise.auth.service.UserService;
@@ -19,6 +20,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
 import java.util.UUID;
 
 @Slf4j
@@ -68,4 +70,9 @@ public class AuthController {
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    @PostMapping("/users/lookup")
+    public ResponseEntity<Map<UUID, String>> lookupUsernames(@Valid @RequestBody UserLookupRequest request) {
+        return ResponseEntity.ok(userService.getUsernamesByIds(request.getIds()));
+    }
 }
\ No newline at end of file
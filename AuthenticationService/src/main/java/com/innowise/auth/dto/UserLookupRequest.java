@@ -0,0 +1,24 @@
+package com.innowise.auth.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.UUID;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserLookupRequest {
+
+    public static final int MAX_IDS = 500;
+
+    @NotNull
+    @Size(max = MAX_IDS)
+    private List<@NotNull UUID> ids;
+}
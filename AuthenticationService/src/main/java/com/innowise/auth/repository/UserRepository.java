@@ -2,7 +2,10 @@ package com.innowise.auth.repository;
 
 import com.innowise.auth.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,4 +14,8 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    @Query(value = "SELECT u.id AS id, u.username AS username FROM user_schema.users u WHERE u.id = ANY(:ids)",
+            nativeQuery = true)
+    List<UsernameView> findUsernamesByIdIn(@Param("ids") UUID[] ids);
 }
\ No newline at end of file
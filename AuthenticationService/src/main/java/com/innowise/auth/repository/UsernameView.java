@@ -0,0 +1,8 @@
+package com.innowise.auth.repository;
+
+import java.util.UUID;
+
+public interface UsernameView {
+    UUID getId();
+    String getUsername();
+}
@@ -1,5 +1,6 @@
 package com.innowise.auth.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.innowise.auth.dto.AuthResponse;
 import com.innowise.auth.dto.LoginRequest;
 import com.innowise.auth.dto.RegisterRequest;
@@ -9,6 +10,7 @@ import com.innowise.auth.exception.RefreshTokenException;
 import com.innowise.auth.exception.UserAlreadyExistsException;
 import com.innowise.auth.exception.UserNotFoundException;
 import com.innowise.auth.repository.UserRepository;
+import com.innowise.auth.repository.UsernameView;
 import com.innowise.common.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,7 +18,11 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import java.util.UUID;
 
 @Slf4j
@@ -27,6 +33,7 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final Cache<UUID, String> usernameCache;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -93,7 +100,18 @@ public class UserService {
     }
 
     public Optional<String> getUsernameById(UUID userId) {
-        return userRepository.findById(userId)
-                .map(User::getUsername);
+        return Optional.ofNullable(usernameCache.get(userId, id -> userRepository.findById(id)
+                .map(User::getUsername)
+                .orElse(null)));
+    }
+
+    /**
+     * Resolves usernames for many users at once. Ids found in the cache are answered from it; the
+     * rest are fetched with a single query and cached. Unknown ids are left out of the result.
+     */
+    public Map<UUID, String> getUsernamesByIds(Collection<UUID> userIds) {
+        return usernameCache.getAll(new LinkedHashSet<>(userIds), missing ->
+                userRepository.findUsernamesByIdIn(missing.toArray(UUID[]::new)).stream()
+                        .collect(Collectors.toMap(UsernameView::getId, UsernameView::getUsername)));
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.innowise.auth.dto.AuthResponse;
 import com.innowise.auth.dto.LoginRequest;
 import com.innowise.auth.dto.RegisterRequest;
+import com.innowise.auth.dto.UserLookupRequest;
 import com.innowise.auth.exception.GlobalExceptionHandler;
 import com.innowise.auth.service.UserService;
 import com.innowise.common.security.JwtUtil;
@@ -18,9 +19,13 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -191,4 +196,38 @@ class AuthControllerTest {
                 .andExpect(status().is5xxServerError())
                 .andExpect(jsonPath("$.message").value("Invalid refresh token"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void lookupUsernames_ShouldReturnNamesById() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(userService.getUsernamesByIds(List.of(id))).thenReturn(Map.of(id, "john"));
+
+        mockMvc.perform(post("/api/auth/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserLookupRequest(List.of(id)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$." + id).value("john"));
+    }
+
+    @Test
+    void lookupUsernames_ShouldRejectTooManyIds() throws Exception {
+        List<UUID> ids = Collections.nCopies(UserLookupRequest.MAX_IDS + 1, UUID.randomUUID());
+
+        mockMvc.perform(post("/api/auth/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserLookupRequest(ids))))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void lookupUsernames_ShouldRejectNullId() throws Exception {
+        mockMvc.perform(post("/api/auth/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[null]}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userService);
+    }
+}
@@ -4,6 +4,7 @@ import com.innowise.auth.dto.AuthResponse;
 import com.innowise.auth.dto.ErrorResponse;
 import com.innowise.auth.dto.LoginRequest;
 import com.innowise.auth.dto.RegisterRequest;
+import com.innowise.auth.dto.UserLookupRequest;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.TestMethodOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -24,6 +26,10 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -170,4 +176,21 @@ class AuthServiceIntegrationTest {
         assertEquals("Invalid refresh token", response.getBody().getMessage());
         assertEquals("/api/auth/refresh", response.getBody().getPath());
     }
-}
\ No newline at end of file
+
+    @Test
+    @Order(10)
+    void lookup_ShouldReturnKnownUsernames() {
+        AuthResponse alice = (AuthResponse) register("lookup1", "lookup1@example.com", "password123", AuthResponse.class).getBody();
+        AuthResponse bob = (AuthResponse) register("lookup2", "lookup2@example.com", "password123", AuthResponse.class).getBody();
+        UUID aliceId = UUID.fromString(alice.getUserId());
+        UUID bobId = UUID.fromString(bob.getUserId());
+        UUID unknownId = UUID.randomUUID();
+
+        ResponseEntity<Map<UUID, String>> response = restTemplate.exchange("/api/auth/users/lookup", HttpMethod.POST,
+                new HttpEntity<>(new UserLookupRequest(List.of(aliceId, bobId, unknownId))),
+                new ParameterizedTypeReference<>() {});
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Map.of(aliceId, "lookup1", bobId, "lookup2"), response.getBody());
+    }
+}
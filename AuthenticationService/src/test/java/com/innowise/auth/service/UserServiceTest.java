@@ -1,19 +1,25 @@
 package com.innowise.auth.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.innowise.auth.dto.AuthResponse;
 import com.innowise.auth.dto.LoginRequest;
 import com.innowise.auth.dto.RegisterRequest;
 import com.innowise.auth.entity.User;
 import com.innowise.auth.repository.UserRepository;
+import com.innowise.auth.repository.UsernameView;
 import com.innowise.common.security.JwtUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -22,7 +28,9 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.argThat;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -38,6 +46,9 @@ class UserServiceTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Spy
+    private Cache<UUID, String> usernameCache = Caffeine.newBuilder().build();
+
     @InjectMocks
     private UserService userService;
 
@@ -182,4 +193,44 @@ class UserServiceTest {
 
         assertTrue(ex.getMessage().contains("User not found"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getUsernamesByIds_ShouldQueryOnlyUncachedIds() {
+        UUID cachedId = UUID.randomUUID();
+        UUID unknownId = UUID.randomUUID();
+        usernameCache.put(cachedId, "alice");
+        UsernameView john = usernameView(user.getId(), "john");
+        when(userRepository.findUsernamesByIdIn(any(UUID[].class))).thenReturn(List.of(john));
+
+        Map<UUID, String> result = userService.getUsernamesByIds(List.of(cachedId, user.getId(), unknownId, user.getId()));
+
+        assertEquals(Map.of(cachedId, "alice", user.getId(), "john"), result);
+        verify(userRepository).findUsernamesByIdIn(argThat(
+                ids -> List.of(ids).size() == 2 && !List.of(ids).contains(cachedId)));
+        assertEquals("john", usernameCache.getIfPresent(user.getId()));
+    }
+
+    @Test
+    void getUsernameById_ShouldServeRepeatLookupsFromCache() {
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        assertEquals(Optional.of("john"), userService.getUsernameById(user.getId()));
+        assertEquals(Optional.of("john"), userService.getUsernameById(user.getId()));
+
+        verify(userRepository, times(1)).findById(user.getId());
+    }
+
+    private static UsernameView usernameView(UUID id, String username) {
+        return new UsernameView() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public String getUsername() {
+                return username;
+            }
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.innowise.common.dto.event;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRenamedEventDto {
+    private UUID userId;
+    private String username;
+    private LocalDateTime timestamp;
+
+    public UserRenamedEventDto(UUID userId, String username) {
+        this.userId = userId;
+        this.username = username;
+        this.timestamp = LocalDateTime.now();
+    }
+}
@@ -1,14 +1,9 @@
 package com.innowise.image.config;
 
-import org.modelmapper.ModelMapper;
-import org.springframework.context.annotation.Bean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
+@EnableConfigurationProperties({ObjectCacheProperties.class, UploadAdmissionProperties.class})
 public class AppConfig {
-
-    @Bean
-    public ModelMapper modelMapper() {
-        return new ModelMapper();
-    }
-}
\ No newline at end of file
+}
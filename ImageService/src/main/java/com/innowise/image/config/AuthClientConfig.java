@@ -0,0 +1,50 @@
+package com.innowise.image.config;
+
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedThreadPoolBulkheadMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(UsernameLookupProperties.class)
+public class AuthClientConfig {
+
+    /**
+     * Fixed pool with a short queue that bounds how many calls to the auth service are in flight
+     * at once, across all requests. Calls beyond the queue are rejected straight away instead of
+     * tying up request threads while the auth service is slow; callers fall back to cached names.
+     * Exposed under {@code resilience4j.bulkhead.*}.
+     */
+    @Bean(destroyMethod = "close")
+    public ThreadPoolBulkhead authServiceBulkhead(UsernameLookupProperties properties, MeterRegistry meterRegistry) {
+        ThreadPoolBulkheadRegistry registry = ThreadPoolBulkheadRegistry.of(ThreadPoolBulkheadConfig.custom()
+                .coreThreadPoolSize(properties.concurrency())
+                .maxThreadPoolSize(properties.concurrency())
+                .queueCapacity(properties.queueCapacity())
+                .build());
+        TaggedThreadPoolBulkheadMetrics.ofThreadPoolBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry.bulkhead("auth-service");
+    }
+
+    /**
+     * Leased, available and pending connections of the pooled Feign transport, under
+     * {@code httpcomponents.httpclient.pool.*}. Request latency is recorded by Feign itself.
+     */
+    @Bean
+    public MeterBinder feignConnectionPoolMetrics(ObjectProvider<HttpClientConnectionManager> hc5ConnectionManager) {
+        return registry -> hc5ConnectionManager.ifAvailable(connectionManager -> {
+            if (connectionManager instanceof PoolingHttpClientConnectionManager pool) {
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, "feign").bindTo(registry);
+            }
+        });
+    }
+}
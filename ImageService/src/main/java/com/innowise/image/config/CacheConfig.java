@@ -0,0 +1,34 @@
+package com.innowise.image.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * In-process cache of {@code ImageDto} by image id. Evictions issued inside a transaction are
+ * deferred until it commits, so a concurrent read cannot put the pre-commit row back in the cache.
+ * Stats are recorded so the cache shows up under {@code cache.*} on the actuator metrics endpoint.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(ImageMetadataCacheProperties.class)
+public class CacheConfig {
+
+    public static final String IMAGES_CACHE = "images";
+
+    @Bean
+    public CacheManager cacheManager(ImageMetadataCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(IMAGES_CACHE);
+        cacheManager.setAllowNullValues(false);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(properties.maxSize())
+                .expireAfterWrite(properties.ttl())
+                .recordStats());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
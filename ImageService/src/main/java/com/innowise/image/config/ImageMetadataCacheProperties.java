@@ -0,0 +1,21 @@
+package com.innowise.image.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "image.metadata-cache")
+public record ImageMetadataCacheProperties(
+        @DefaultValue("10000") long maxSize,
+        @DefaultValue("PT10M") Duration ttl
+) {
+    public ImageMetadataCacheProperties {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("image.metadata-cache.max-size must be positive");
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("image.metadata-cache.ttl must be positive");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.innowise.image.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableConfigurationProperties(ImageVariantProperties.class)
+public class ImageVariantConfig {
+
+    /**
+     * Small fixed pool with a short queue: decoding is CPU and heap heavy, so work beyond
+     * the queue is rejected and stays in the job table until a worker is free.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor imageVariantExecutor(ImageVariantProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.threads());
+        executor.setMaxPoolSize(properties.threads());
+        executor.setQueueCapacity(properties.queueCapacity());
+        executor.setThreadNamePrefix("image-variant-");
+        executor.initialize();
+        return executor;
+    }
+}
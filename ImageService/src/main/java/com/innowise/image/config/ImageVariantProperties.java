@@ -0,0 +1,20 @@
+package com.innowise.image.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "image.variants")
+public record ImageVariantProperties(
+        @DefaultValue({"256", "768", "1600"}) List<Integer> widths,
+        @DefaultValue("0.85") float jpegQuality,
+        @DefaultValue("2") int threads,
+        @DefaultValue("8") int queueCapacity,
+        @DefaultValue("PT10S") Duration pollInterval,
+        @DefaultValue("PT10M") Duration lease,
+        @DefaultValue("PT30S") Duration retryBackoff,
+        @DefaultValue("5") int maxAttempts,
+        @DefaultValue("16000000") long maxPixels
+) {}
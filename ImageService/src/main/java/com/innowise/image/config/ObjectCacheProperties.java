@@ -0,0 +1,23 @@
+package com.innowise.image.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+@ConfigurationProperties(prefix = "image.cache")
+public record ObjectCacheProperties(
+        Path directory,
+        @DefaultValue("1GB") DataSize maxSize,
+        @DefaultValue("16") int segments
+) {
+    public ObjectCacheProperties {
+        if (directory == null) {
+            throw new IllegalArgumentException("image.cache.directory must be set");
+        }
+        if (segments < 1 || maxSize.toBytes() < segments) {
+            throw new IllegalArgumentException("image.cache.max-size must cover at least one byte per segment");
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.innowise.image.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "s3.async")
+public record S3AsyncProperties(
+        @DefaultValue("64") int maxConcurrency,
+        @DefaultValue("1000") int maxPendingConnectionAcquires,
+        @DefaultValue("PT10S") Duration connectionAcquisitionTimeout,
+        @DefaultValue("PT60S") Duration readTimeout,
+        @DefaultValue("PT60S") Duration writeTimeout
+) {
+    public S3AsyncProperties {
+        if (maxConcurrency < 1 || maxPendingConnectionAcquires < 1) {
+            throw new IllegalArgumentException("s3.async.max-concurrency and max-pending-connection-acquires must be >= 1");
+        }
+    }
+}
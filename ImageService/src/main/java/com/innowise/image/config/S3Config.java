@@ -3,16 +3,21 @@ package com.innowise.image.config;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.SdkAdvancedAsyncClientOption;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 import java.net.URI;
 
 @Configuration
-@EnableConfigurationProperties(S3Properties.class)
+@EnableConfigurationProperties({S3Properties.class, S3MultipartProperties.class, S3AsyncProperties.class})
 public class S3Config {
 
     @Bean
@@ -36,4 +41,97 @@ public class S3Config {
                 .serviceConfiguration(s3config)
                 .build();
     }
+
+    /**
+     * Non-blocking client for request-path I/O. Futures complete on {@code s3TransferExecutor}
+     * rather than on Netty event-loop threads, so callers can safely chain short follow-up work.
+     */
+    @Bean
+    public S3AsyncClient s3AsyncClient(S3Properties properties, S3AsyncProperties asyncProperties,
+                                       ThreadPoolTaskExecutor s3TransferExecutor) {
+        return S3AsyncClient.builder()
+                .endpointOverride(URI.create(properties.endpoint()))
+                .region(Region.of(properties.region()))
+                .credentialsProvider(
+                        StaticCredentialsProvider.create(
+                                AwsBasicCredentials.create(
+                                        properties.accessKey(),
+                                        properties.secretKey()
+                                )
+                        )
+                )
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(true)
+                        .checksumValidationEnabled(false)
+                        .build())
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(asyncProperties.maxConcurrency())
+                        .maxPendingConnectionAcquires(asyncProperties.maxPendingConnectionAcquires())
+                        .connectionAcquisitionTimeout(asyncProperties.connectionAcquisitionTimeout())
+                        .readTimeout(asyncProperties.readTimeout())
+                        .writeTimeout(asyncProperties.writeTimeout()))
+                .asyncConfiguration(config -> config.advancedOption(
+                        SdkAdvancedAsyncClientOption.FUTURE_COMPLETION_EXECUTOR, s3TransferExecutor))
+                .build();
+    }
+
+    /**
+     * Presigned URLs are handed to browsers, so they are signed against the externally
+     * reachable endpoint rather than the in-cluster one.
+     */
+    @Bean
+    public S3Presigner s3Presigner(S3Properties properties) {
+        String endpoint = properties.externalUrl() != null && !properties.externalUrl().isBlank()
+                ? properties.externalUrl()
+                : properties.endpoint();
+
+        return S3Presigner.builder()
+                .endpointOverride(URI.create(endpoint))
+                .region(Region.of(properties.region()))
+                .credentialsProvider(
+                        StaticCredentialsProvider.create(
+                                AwsBasicCredentials.create(
+                                        properties.accessKey(),
+                                        properties.secretKey()
+                                )
+                        )
+                )
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(true)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Completion executor of the async client: runs the callbacks chained on its futures and
+     * nothing that blocks on a stream or a synchronous S3 call.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor s3TransferExecutor(S3MultipartProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.transferThreads());
+        executor.setMaxPoolSize(properties.transferThreads());
+        executor.setThreadNamePrefix("s3-transfer-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs the blocking side of uploads: feeding request streams into async PUT bodies and
+     * synchronous multipart part uploads. The queue is bounded, so when S3 falls behind new
+     * writes are rejected instead of piling up behind the ones in progress, and callbacks on
+     * {@code s3TransferExecutor} are never stuck waiting behind a slow writer.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor s3IoExecutor(S3MultipartProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.ioThreads());
+        executor.setMaxPoolSize(properties.ioThreads());
+        executor.setQueueCapacity(properties.ioQueueCapacity());
+        executor.setThreadNamePrefix("s3-io-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
 }
\ No newline at end of file
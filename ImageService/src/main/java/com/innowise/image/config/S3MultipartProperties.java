@@ -0,0 +1,29 @@
+package com.innowise.image.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "s3.multipart")
+public record S3MultipartProperties(
+        @DefaultValue("8MB") DataSize partSize,
+        @DefaultValue("4") int maxPartsInFlight,
+        @DefaultValue("16") int bufferPoolSize,
+        @DefaultValue("8") int transferThreads,
+        @DefaultValue("8") int ioThreads,
+        @DefaultValue("64") int ioQueueCapacity
+) {
+    private static final DataSize MIN_PART_SIZE = DataSize.ofMegabytes(5);
+
+    public S3MultipartProperties {
+        if (partSize.compareTo(MIN_PART_SIZE) < 0) {
+            throw new IllegalArgumentException("s3.multipart.part-size must be at least " + MIN_PART_SIZE);
+        }
+        if (maxPartsInFlight < 1 || bufferPoolSize < maxPartsInFlight) {
+            throw new IllegalArgumentException("s3.multipart.buffer-pool-size must be >= max-parts-in-flight >= 1");
+        }
+        if (ioThreads < 1 || ioQueueCapacity < 0) {
+            throw new IllegalArgumentException("s3.multipart.io-threads must be >= 1 and io-queue-capacity >= 0");
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.innowise.image.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "image.upload.admission")
+public record UploadAdmissionProperties(
+        @DefaultValue("32") int maxConcurrent,
+        @DefaultValue("1GB") DataSize maxInFlightBytes,
+        @DefaultValue("64") int maxQueued,
+        @DefaultValue("200ms") Duration queueTimeout,
+        @DefaultValue("5s") Duration retryAfter,
+        @DefaultValue("512MB") DataSize unknownLengthCharge
+) {
+    public UploadAdmissionProperties {
+        if (maxConcurrent < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException("image.upload.admission.max-concurrent must be >= 1 and max-queued >= 0");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.innowise.image.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "image.usernames")
+public record UsernameLookupProperties(
+        @DefaultValue("10000") long maxSize,
+        @DefaultValue("PT1M") Duration ttl,
+        @DefaultValue("8") int concurrency,
+        @DefaultValue("16") int queueCapacity,
+        @DefaultValue("500") int batchSize
+) {
+    public UsernameLookupProperties {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("image.usernames.max-size must be positive");
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("image.usernames.ttl must be positive");
+        }
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("image.usernames.concurrency must be positive");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("image.usernames.queue-capacity must be positive");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("image.usernames.batch-size must be positive");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.innowise.image.consumer;
+
+import com.innowise.common.dto.event.UserRenamedEventDto;
+import com.innowise.image.service.CommentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the author names stored on comments in step with renames in the auth service. Events are
+ * keyed by user id, so renames of one user arrive in order and the last one wins.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserEventConsumer {
+
+    private final CommentService commentService;
+
+    @KafkaListener(topics = "user-renamed-events", groupId = "image-service")
+    public void consumeUserRenamed(UserRenamedEventDto event) {
+        commentService.renameAuthor(event.getUserId(), event.getUsername());
+        log.info("Renamed comment author {} to {}", event.getUserId(), event.getUsername());
+    }
+}
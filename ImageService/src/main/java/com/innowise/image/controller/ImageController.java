@@ -1,69 +1,216 @@
 package com.innowise.image.controller;
 
 import com.innowise.common.security.JwtUtil;
+import com.innowise.image.dto.BatchUploadResponseDto;
 import com.innowise.image.dto.CommentDto;
 import com.innowise.image.dto.ImageDto;
+import com.innowise.image.dto.LikeToggleDto;
 import com.innowise.image.dto.LikesCountDto;
+import com.innowise.image.dto.LikesCountsDto;
+import com.innowise.image.dto.LikesCountsRequestDto;
 import com.innowise.image.dto.PageResponseDto;
+import com.innowise.image.dto.UploadIntentDto;
+import com.innowise.image.dto.UploadIntentRequestDto;
 import com.innowise.image.dto.UploadResponseDto;
+import com.innowise.image.dto.UploadSessionDto;
+import com.innowise.image.dto.UploadSessionRequestDto;
 import com.innowise.image.exception.UnauthorizedException;
 import com.innowise.image.service.CommentService;
 import com.innowise.image.service.ImageService;
 import com.innowise.image.service.LikeService;
+import com.innowise.image.service.UploadIntentService;
+import com.innowise.image.service.UploadSessionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.net.URI;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 @RestController
 @RequestMapping("/api")
 @RequiredArgsConstructor
 public class ImageController {
 
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+
     private final JwtUtil jwtUtil;
     private final LikeService likeService;
     private final ImageService imageService;
     private final CommentService commentService;
+    private final UploadIntentService uploadIntentService;
+    private final UploadSessionService uploadSessionService;
 
     @PostMapping(value = "/images", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<UploadResponseDto> uploadImage(
+    public CompletableFuture<ResponseEntity<UploadResponseDto>> uploadImage(
             @RequestHeader(name = "Authorization", required = false) String authHeader,
             @RequestParam("file") MultipartFile file,
             @RequestParam(name = "description", required = false) String description
+    ) {
+
+        UUID userId = extractUserIdFromAuthHeader(authHeader);
+        return imageService.uploadImage(file, userId, description)
+                .thenApply(dto -> ResponseEntity
+                        .created(URI.create("/api/images/" + dto.getId()))
+                        .body(dto));
+    }
+
+    @PostMapping(value = "/images/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public CompletableFuture<ResponseEntity<BatchUploadResponseDto>> uploadImages(
+            @RequestHeader(name = "Authorization", required = false) String authHeader,
+            @RequestParam("file") List<MultipartFile> files,
+            @RequestParam(name = "description", required = false) List<String> descriptions
+    ) {
+
+        UUID userId = extractUserIdFromAuthHeader(authHeader);
+        return imageService.uploadImages(files, userId, descriptions)
+                .thenApply(dto -> ResponseEntity
+                        .status(dto.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS)
+                        .body(dto));
+    }
+
+    @PostMapping(value = "/images/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<UploadResponseDto> uploadImageStream(
+            @RequestHeader(name = "Authorization", required = false) String authHeader,
+            HttpServletRequest request
+    ) throws IOException {
+
+        UUID userId = extractUserIdFromAuthHeader(authHeader);
+        UploadResponseDto dto = imageService.uploadImageStream(request, userId);
+        return ResponseEntity
+                .created(URI.create("/api/images/" + dto.getId()))
+                .body(dto);
+    }
+
+    @PostMapping("/images/upload-intents")
+    public ResponseEntity<UploadIntentDto> createUploadIntent(
+            @RequestHeader(name = "Authorization", required = false) String authHeader,
+            @RequestBody UploadIntentRequestDto request
+    ) {
+        UUID userId = extractUserIdFromAuthHeader(authHeader);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(uploadIntentService.createIntent(userId, request));
+    }
+
+    @PostMapping("/images/{intentId}/commit")
+    public ResponseEntity<UploadResponseDto> commitUploadIntent(
+            @RequestHeader(name = "Authorization", required = false) String authHeader,
+            @PathVariable("intentId") UUID intentId
+    ) {
+        UUID userId = extractUserIdFromAuthHeader(authHeader);
+        UploadResponseDto dto = uploadIntentService.commit(intentId, userId);
+        return ResponseEntity
+                .created(URI.create("/api/images/" + dto.getId()))
+                .body(dto);
+    }
+
+    @PostMapping("/images/uploads")
+    public ResponseEntity<UploadSessionDto> createUploadSession(
+            @RequestHeader(name = "Authorization", required = false) String authHeader,
+            @RequestBody UploadSessionRequestDto request
+    ) {
+        UUID userId = extractUserIdFromAuthHeader(authHeader);
+        UploadSessionDto dto = uploadSessionService.createSession(userId, request);
+        return ResponseEntity
+                .created(URI.create("/api/images/uploads/" + dto.getId()))
+                .header(UPLOAD_OFFSET, String.valueOf(dto.getOffset()))
+                .body(dto);
+    }
+
+    @RequestMapping(value = "/images/uploads/{sessionId}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> getUploadOffset(
+            @RequestHeader(name = "Authorization", required = false) String authHeader,
+            @PathVariable("sessionId") UUID sessionId
+    ) {
+        UUID userId = extractUserIdFromAuthHeader(authHeader);
+        UploadSessionDto dto = uploadSessionService.getSession(sessionId, userId);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header(UPLOAD_OFFSET, String.valueOf(dto.getOffset()))
+                .header(UPLOAD_LENGTH, String.valueOf(dto.getSize()))
+                .build();
+    }
+
+    @PatchMapping("/images/uploads/{sessionId}")
+    public ResponseEntity<Void> appendUploadChunk(
+            @RequestHeader(name = "Authorization", required = false) String authHeader,
+            @RequestHeader(UPLOAD_OFFSET) long offset,
+            @PathVariable("sessionId") UUID sessionId,
+            HttpServletRequest request
     ) throws IOException {
+        UUID userId = extractUserIdFromAuthHeader(authHeader);
+        long newOffset = uploadSessionService.appendChunk(sessionId, userId, offset,
+                request.getInputStream(), request.getContentLengthLong());
+        return ResponseEntity.noContent()
+                .header(UPLOAD_OFFSET, String.valueOf(newOffset))
+                .build();
+    }
 
+    @PostMapping("/images/uploads/{sessionId}/complete")
+    public ResponseEntity<UploadResponseDto> completeUploadSession(
+            @RequestHeader(name = "Authorization", required = false) String authHeader,
+            @PathVariable("sessionId") UUID sessionId
+    ) {
         UUID userId = extractUserIdFromAuthHeader(authHeader);
-        UploadResponseDto dto = imageService.uploadImage(file, userId, description);
+        UploadResponseDto dto = uploadSessionService.complete(sessionId, userId);
         return ResponseEntity
                 .created(URI.create("/api/images/" + dto.getId()))
                 .body(dto);
     }
 
     @GetMapping("/images/{id}")
-    public ResponseEntity<ImageDto> getImage(@PathVariable("id") UUID id) {
+    public ResponseEntity<ImageDto> getImage(@PathVariable("id") UUID id, WebRequest request) {
+        ResponseEntity<ImageDto> notModified = notModified(request, imageService.getImageVersionTag(id));
+        if (notModified != null) {
+            return notModified;
+        }
         ImageDto dto = imageService.getImage(id);
-        return ResponseEntity.ok(dto);
+        return versioned(String.valueOf(dto.getVersion()), dto);
+    }
+
+    @GetMapping("/images/{id}/content")
+    public void getImageContent(@PathVariable("id") UUID id, HttpServletResponse response) throws IOException {
+        imageService.writeImageContent(id, response);
     }
 
     @GetMapping("/user/{id}/images")
-    public ResponseEntity<PageResponseDto<ImageDto>> getUserImages(@PathVariable("id") UUID id, Pageable pageable) {
+    public ResponseEntity<PageResponseDto<ImageDto>> getUserImages(
+            @PathVariable("id") UUID id,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            Pageable pageable,
+            WebRequest request
+    ) {
+        String etag = imageService.getUserImagesVersionTag(id, cursor, pageable);
+        ResponseEntity<PageResponseDto<ImageDto>> notModified = notModified(request, etag);
+        if (notModified != null) {
+            return notModified;
+        }
+        if (cursor != null) {
+            return versioned(etag, imageService.getUserImageFeed(id, cursor, pageable.getPageSize()));
+        }
 
         Page<ImageDto> page = imageService.getUserImages(id, pageable);
         PageResponseDto<ImageDto> resp = PageResponseDto.<ImageDto>builder()
@@ -74,11 +221,24 @@ public class ImageController {
                 .totalPages(page.getTotalPages())
                 .last(page.isLast())
                 .build();
-        return ResponseEntity.ok(resp);
+        return versioned(etag, resp);
     }
 
     @GetMapping("/images")
-    public ResponseEntity<PageResponseDto<ImageDto>> getAllImages(Pageable pageable) {
+    public ResponseEntity<PageResponseDto<ImageDto>> getAllImages(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            Pageable pageable,
+            WebRequest request
+    ) {
+        String etag = imageService.getImagesVersionTag(cursor, pageable);
+        ResponseEntity<PageResponseDto<ImageDto>> notModified = notModified(request, etag);
+        if (notModified != null) {
+            return notModified;
+        }
+        if (cursor != null) {
+            return versioned(etag, imageService.getImageFeed(cursor, pageable.getPageSize()));
+        }
+
         Page<ImageDto> page = imageService.getAllImages(pageable);
 
         PageResponseDto<ImageDto> resp = PageResponseDto.<ImageDto>builder()
@@ -90,22 +250,31 @@ public class ImageController {
                 .last(page.isLast())
                 .build();
 
-        return ResponseEntity.ok(resp);
+        return versioned(etag, resp);
     }
 
     @PostMapping("/images/{id}/likes")
-    public ResponseEntity<Void> toggleLike(
+    public ResponseEntity<LikeToggleDto> toggleLike(
             @RequestHeader(name = "Authorization", required = false) String authHeader,
             @PathVariable("id") UUID imageId
     ) {
         UUID userId = extractUserIdFromAuthHeader(authHeader);
-        likeService.toggleLike(imageId, userId);
-        return ResponseEntity.noContent().build();
+        return ResponseEntity.ok(likeService.toggleLike(imageId, userId));
     }
 
     @GetMapping("/images/{id}/likes/count")
-    public ResponseEntity<LikesCountDto> countLikes(@PathVariable("id") UUID imageId) {
-        return ResponseEntity.ok(new LikesCountDto(likeService.countLikes(imageId)));
+    public ResponseEntity<LikesCountDto> countLikes(@PathVariable("id") UUID imageId, WebRequest request) {
+        String etag = imageService.getImageVersionTag(imageId);
+        ResponseEntity<LikesCountDto> notModified = notModified(request, etag);
+        if (notModified != null) {
+            return notModified;
+        }
+        return versioned(etag, new LikesCountDto(likeService.countLikes(imageId)));
+    }
+
+    @PostMapping("/images/likes/counts")
+    public ResponseEntity<LikesCountsDto> countLikes(@RequestBody LikesCountsRequestDto request) {
+        return ResponseEntity.ok(new LikesCountsDto(likeService.countLikes(request.getImageIds())));
     }
 
     @PostMapping("/images/{id}/comments")
@@ -120,8 +289,18 @@ public class ImageController {
     }
 
     @GetMapping("/images/{id}/comments")
-    public ResponseEntity<List<CommentDto>> listComments(@PathVariable("id") UUID imageId) {
-        return ResponseEntity.ok(commentService.listComments(imageId));
+    public ResponseEntity<PageResponseDto<CommentDto>> listComments(
+            @PathVariable("id") UUID imageId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size,
+            WebRequest request
+    ) {
+        String etag = imageService.getImageVersionTag(imageId);
+        ResponseEntity<PageResponseDto<CommentDto>> notModified = notModified(request, etag);
+        if (notModified != null) {
+            return notModified;
+        }
+        return versioned(etag, commentService.listComments(imageId, cursor, size));
     }
 
     @PutMapping("/images/{id}/comments/{commentId}")
@@ -146,6 +325,34 @@ public class ImageController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Answers a conditional GET from the version tag alone, before anything is loaded or
+     * serialized. Returns null when there is no tag or the client's copy is out of date.
+     */
+    private static <T> ResponseEntity<T> notModified(WebRequest request, String etag) {
+        if (etag == null || !request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .build();
+    }
+
+    /**
+     * Marks the response revalidate-on-use, so browsers keep it and send If-None-Match on the
+     * next poll instead of the no-store default added by Spring Security.
+     */
+    private static <T> ResponseEntity<T> versioned(String etag, T body) {
+        if (etag == null) {
+            return ResponseEntity.ok(body);
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(body);
+    }
+
     private UUID extractUserIdFromAuthHeader(String authHeader) {
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             throw new UnauthorizedException("Missing or invalid Authorization header");
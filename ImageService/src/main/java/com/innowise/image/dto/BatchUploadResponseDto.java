@@ -0,0 +1,20 @@
+package com.innowise.image.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchUploadResponseDto {
+    private int succeeded;
+    private int failed;
+    private List<BatchUploadResultDto> results;
+}
@@ -0,0 +1,21 @@
+package com.innowise.image.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchUploadResultDto {
+    private String fileName;
+    private UUID id;
+    private String url;
+    private String error;
+}
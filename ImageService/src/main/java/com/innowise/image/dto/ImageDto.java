@@ -7,6 +7,7 @@ import lombok.Setter;
 import lombok.Builder;
 
 import java.time.Instant;
+import java.util.Map;
 import java.util.UUID;
 
 @Getter
@@ -21,4 +22,13 @@ public class ImageDto {
     private Instant uploadedAt;
     private UUID userId;
     private String authorName;
+    private Integer width;
+    private Integer height;
+    private String mimeType;
+    private Long sizeBytes;
+    private Short orientation;
+    private int likeCount;
+    private int commentCount;
+    private long version;
+    private Map<Integer, String> variants;
 }
@@ -0,0 +1,15 @@
+package com.innowise.image.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LikeToggleDto {
+    private boolean liked;
+    private int likesCount;
+}
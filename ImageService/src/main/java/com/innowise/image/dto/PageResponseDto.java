@@ -15,9 +15,10 @@ import java.util.List;
 @Builder
 public class PageResponseDto<T> {
     private List<T> content;
-    private int page;
+    private Integer page;
     private int size;
-    private long totalElements;
-    private int totalPages;
+    private Long totalElements;
+    private Integer totalPages;
     private boolean last;
+    private String nextCursor;
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.innowise.image.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadIntentDto {
+    private UUID id;
+    private String key;
+    private String uploadUrl;
+    private String contentType;
+    private Instant expiresAt;
+}
@@ -36,6 +36,9 @@ public class CommentEntity {
     @Column(name = "user_id", nullable = false)
     private UUID userId;
 
+    @Column(name = "author_name", length = 50)
+    private String authorName;
+
     @Column(name = "content", columnDefinition = "text", nullable = false)
     private String content;
 
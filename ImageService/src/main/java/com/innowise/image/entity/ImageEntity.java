@@ -10,12 +10,17 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Builder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UuidGenerator;
+import org.hibernate.type.SqlTypes;
 
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "gallery-images")
 @Table(name = "images", schema = "gallery")
 @Getter
 @Setter
@@ -41,4 +46,38 @@ public class ImageEntity {
 
     @Column(name = "user_id", nullable = false)
     private UUID userId;
+
+    @Column(name = "object_key", length = 500)
+    private String objectKey;
+
+    @Column(name = "blob_hash", length = 64)
+    private String blobHash;
+
+    @Column(name = "width")
+    private Integer width;
+
+    @Column(name = "height")
+    private Integer height;
+
+    @Column(name = "mime_type", length = 100)
+    private String mimeType;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    @Column(name = "orientation")
+    private Short orientation;
+
+    @Column(name = "like_count", nullable = false)
+    private int likeCount;
+
+    @Column(name = "comment_count", nullable = false)
+    private int commentCount;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "variant_widths", columnDefinition = "integer[]")
+    private Integer[] variantWidths;
 }
@@ -30,6 +30,11 @@ public class GlobalExceptionHandler {
         return build(ex, HttpStatus.BAD_REQUEST, request.getRequestURI());
     }
 
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ErrorResponseDto> handleBadRequest(BadRequestException ex, HttpServletRequest req) {
+        return build(ex, HttpStatus.BAD_REQUEST, req.getRequestURI());
+    }
+
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<ErrorResponseDto> handleNotFound(NotFoundException ex, HttpServletRequest req) {
         return build(ex, HttpStatus.NOT_FOUND, req.getRequestURI());
@@ -0,0 +1,5 @@
+package com.innowise.image.exception;
+
+public class S3WriteException extends RuntimeException {
+    public S3WriteException(String message, Throwable cause) { super(message, cause); }
+}
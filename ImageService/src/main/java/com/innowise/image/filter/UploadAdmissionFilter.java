@@ -0,0 +1,184 @@
+package com.innowise.image.filter;
+
+import com.innowise.image.config.UploadAdmissionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for upload requests. At most {@code max-concurrent} uploads and
+ * {@code max-in-flight-bytes} of request bodies are admitted at once; a request without a
+ * {@code Content-Length} (chunked transfer) is charged {@code unknown-length-charge}, the largest
+ * body the upload endpoints accept, so it cannot slip past the byte budget. A request that
+ * cannot get a slot within {@code queue-timeout}, or arrives when {@code max-queued} requests are
+ * already waiting, is rejected with 503 and {@code Retry-After} before any of its body is read.
+ * Slots are held until the response completes, including asynchronously handled uploads.
+ * Reads never pass through the limiter, so they keep their latency during upload bursts.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class UploadAdmissionFilter extends OncePerRequestFilter {
+
+    private static final String UPLOAD_PATH = "/api/images";
+    private static final String ERROR_JSON_TEMPLATE = "{\"status\":503,\"error\":\"Service Unavailable\",\"message\":\"%s\"}";
+
+    private final UploadAdmissionProperties properties;
+    private final Semaphore slots;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong inFlightBytes = new AtomicLong();
+    private final Timer waitTimer;
+    private final MeterRegistry meterRegistry;
+
+    public UploadAdmissionFilter(UploadAdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.slots = new Semaphore(properties.maxConcurrent(), true);
+        this.waitTimer = Timer.builder("image.upload.admission.wait").register(meterRegistry);
+        Gauge.builder("image.upload.admission.active", slots, s -> properties.maxConcurrent() - s.availablePermits())
+                .register(meterRegistry);
+        Gauge.builder("image.upload.admission.queued", queued, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("image.upload.admission.in-flight", inFlightBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (!path.startsWith(UPLOAD_PATH)) {
+            return true;
+        }
+        if (HttpMethod.PATCH.matches(request.getMethod())) {
+            return false;
+        }
+        String contentType = request.getContentType();
+        return !HttpMethod.POST.matches(request.getMethod())
+                || contentType == null
+                || !contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long declared = request.getContentLengthLong();
+        long bytes = declared >= 0 ? declared : properties.unknownLengthCharge().toBytes();
+
+        String rejection = admit(bytes);
+        if (rejection != null) {
+            reject(response, rejection);
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                inFlightBytes.addAndGet(-bytes);
+                slots.release();
+            }
+        };
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    /**
+     * @return the rejection reason, or {@code null} once a slot and byte budget are held
+     */
+    private String admit(long bytes) {
+        long start = System.nanoTime();
+        if (!slots.tryAcquire()) {
+            if (queued.incrementAndGet() > properties.maxQueued()) {
+                queued.decrementAndGet();
+                return "queue_full";
+            }
+            boolean acquired;
+            try {
+                acquired = slots.tryAcquire(properties.queueTimeout().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            } finally {
+                queued.decrementAndGet();
+            }
+            if (!acquired) {
+                waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return "timeout";
+            }
+        }
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        long limit = properties.maxInFlightBytes().toBytes();
+        while (true) {
+            long current = inFlightBytes.get();
+            if (current > 0 && current + bytes > limit) {
+                slots.release();
+                return "bytes";
+            }
+            if (inFlightBytes.compareAndSet(current, current + bytes)) {
+                return null;
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, String reason) throws IOException {
+        Counter.builder("image.upload.admission.rejected")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(properties.retryAfter().toSeconds(), 1)));
+        response.setHeader(HttpHeaders.CONNECTION, "close");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(String.format(ERROR_JSON_TEMPLATE, "Upload capacity exhausted, retry later"));
+    }
+
+    private record ReleasingListener(Runnable release) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
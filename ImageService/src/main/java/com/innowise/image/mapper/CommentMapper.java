@@ -0,0 +1,26 @@
+package com.innowise.image.mapper;
+
+import com.innowise.image.dto.CommentDto;
+import com.innowise.image.entity.CommentEntity;
+import com.innowise.image.repository.CommentRow;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Generated at compile time. The author name is stored on the comment when it is written; until a
+ * name that could not be resolved then has been backfilled, the placeholder is shown instead. Any
+ * DTO field left unmapped fails the build.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface CommentMapper {
+
+    String UNKNOWN_AUTHOR = "Unknown user";
+
+    @Mapping(target = "authorName", defaultValue = UNKNOWN_AUTHOR)
+    CommentDto toDto(CommentEntity comment);
+
+    @Mapping(target = "authorName", defaultValue = UNKNOWN_AUTHOR)
+    CommentDto toDto(CommentRow comment);
+}
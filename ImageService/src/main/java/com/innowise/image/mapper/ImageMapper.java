@@ -0,0 +1,25 @@
+package com.innowise.image.mapper;
+
+import com.innowise.image.dto.ImageDto;
+import com.innowise.image.entity.ImageEntity;
+import com.innowise.image.repository.ImageRow;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Generated at compile time. Variant URLs and author names are not columns and are filled in by
+ * the service; any other DTO field left unmapped fails the build.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface ImageMapper {
+
+    @Mapping(target = "authorName", ignore = true)
+    @Mapping(target = "variants", ignore = true)
+    ImageDto toDto(ImageEntity image);
+
+    @Mapping(target = "authorName", ignore = true)
+    @Mapping(target = "variants", ignore = true)
+    ImageDto toDto(ImageRow image);
+}
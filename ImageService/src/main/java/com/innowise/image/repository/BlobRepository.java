@@ -0,0 +1,29 @@
+package com.innowise.image.repository;
+
+import com.innowise.image.entity.BlobEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface BlobRepository extends JpaRepository<BlobEntity, String> {
+
+    /**
+     * Records one more reference to the blob, creating the row on first use. A single upsert
+     * keeps concurrent uploads of the same content from racing on insert.
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "gallery.blobs"))
+    @Query(value = """
+            INSERT INTO gallery.blobs (hash, object_key, size_bytes, content_type, ref_count, created_at)
+            VALUES (:hash, :objectKey, :sizeBytes, :contentType, 1, now())
+            ON CONFLICT (hash) DO UPDATE SET ref_count = gallery.blobs.ref_count + 1
+            """, nativeQuery = true)
+    int acquire(@Param("hash") String hash, @Param("objectKey") String objectKey,
+                @Param("sizeBytes") long sizeBytes, @Param("contentType") String contentType);
+}
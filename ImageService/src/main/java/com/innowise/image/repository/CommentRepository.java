@@ -1,8 +1,16 @@
 package com.innowise.image.repository;
 
 import com.innowise.image.entity.CommentEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -11,5 +19,56 @@ public interface CommentRepository extends JpaRepository<CommentEntity, UUID> {
 
     Optional<CommentEntity> findByIdAndImageIdAndUserIdOrderByCreatedAtDesc(UUID id, UUID imageId, UUID userId);
 
-    List<CommentEntity> findAllByImageIdOrderByCreatedAtDesc(UUID imageId);
-}
\ No newline at end of file
+    /**
+     * Selects the columns of {@link CommentRow}; list queries append their own filter and order.
+     */
+    String COMMENT_ROW = "select new com.innowise.image.repository.CommentRow(c.id, c.imageId, c.userId, c.authorName,"
+            + " c.content, c.createdAt) from CommentEntity c";
+
+    @Query(COMMENT_ROW + " where c.imageId = :imageId order by c.createdAt desc, c.id desc")
+    List<CommentRow> findImageComments(@Param("imageId") UUID imageId, Limit limit);
+
+    @Query(COMMENT_ROW + " where c.imageId = :imageId and (c.createdAt, c.id) < (:createdAt, :id)"
+            + " order by c.createdAt desc, c.id desc")
+    List<CommentRow> findImageCommentsAfter(@Param("imageId") UUID imageId, @Param("createdAt") Instant createdAt,
+                                            @Param("id") UUID id, Limit limit);
+
+    /**
+     * Users with comments stored without an author name, because the name could not be resolved
+     * when the comment was written. Served by the partial index on rows missing the name.
+     */
+    @Query(value = """
+            SELECT DISTINCT user_id FROM gallery.comments
+            WHERE author_name IS NULL
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<UUID> findUserIdsMissingAuthorName(@Param("limit") int limit);
+
+    /**
+     * Rewrites the stored author name on at most {@code batchSize} of the user's comments that do not
+     * carry it yet, in its own transaction, and bumps the version of every image those comments are
+     * on in the same statement so comment ETags change. Returns the image id of each renamed comment;
+     * callers repeat until fewer than a full batch come back. The rows bypass the persistence context,
+     * so callers evict the returned images from the caches.
+     */
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "gallery.comments"))
+    @Query(value = """
+            WITH renamed AS (
+                UPDATE gallery.comments SET author_name = :authorName
+                WHERE id IN (
+                    SELECT id FROM gallery.comments
+                    WHERE user_id = :userId AND author_name IS DISTINCT FROM :authorName
+                    LIMIT :batchSize
+                )
+                RETURNING image_id
+            ), bumped AS (
+                UPDATE gallery.images SET version = version + 1
+                WHERE id IN (SELECT image_id FROM renamed)
+                RETURNING id
+            )
+            SELECT image_id FROM renamed
+            """, nativeQuery = true)
+    List<UUID> renameAuthor(@Param("userId") UUID userId, @Param("authorName") String authorName,
+                            @Param("batchSize") int batchSize);
+}
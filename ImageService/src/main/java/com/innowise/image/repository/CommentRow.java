@@ -0,0 +1,6 @@
+package com.innowise.image.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record CommentRow(UUID id, UUID imageId, UUID userId, String authorName, String content, Instant createdAt) {}
@@ -0,0 +1,8 @@
+package com.innowise.image.repository;
+
+import java.util.UUID;
+
+public interface ImageLikeCount {
+    UUID getId();
+    int getLikeCount();
+}
@@ -1,13 +1,149 @@
 package com.innowise.image.repository;
 
+import com.innowise.image.config.CacheConfig;
 import com.innowise.image.entity.ImageEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface ImageRepository extends JpaRepository<ImageEntity, UUID> {
-    Page<ImageEntity> findByUserIdOrderByUploadedAtDesc(UUID userId, Pageable pageable);
-    Page<ImageEntity> findAllByOrderByUploadedAtDesc(Pageable pageable);
+
+    /**
+     * Query space declared by the counter updates. It matches no entity table, so Hibernate only
+     * invalidates cached queries over this space instead of the whole images cache region; callers
+     * evict the updated row themselves (see {@code EntityCacheEvictor}).
+     */
+    String COUNTERS_SPACE = "gallery.images.counters";
+
+    /**
+     * Selects the columns of {@link ImageRow}; list queries append their own filter and order.
+     */
+    String IMAGE_ROW = "select new com.innowise.image.repository.ImageRow(i.id, i.url, i.description, i.uploadedAt,"
+            + " i.userId, i.width, i.height, i.mimeType, i.sizeBytes, i.orientation, i.likeCount, i.commentCount,"
+            + " i.version, i.variantWidths) from ImageEntity i";
+
+    @Query(value = IMAGE_ROW + " where i.userId = :userId order by i.uploadedAt desc",
+            countQuery = "select count(i) from ImageEntity i where i.userId = :userId")
+    Page<ImageRow> findByUserIdOrderByUploadedAtDesc(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query(value = IMAGE_ROW + " order by i.uploadedAt desc",
+            countQuery = "select count(i) from ImageEntity i")
+    Page<ImageRow> findAllByOrderByUploadedAtDesc(Pageable pageable);
+
+    @Query(IMAGE_ROW + " order by i.uploadedAt desc, i.id desc")
+    List<ImageRow> findFeed(Limit limit);
+
+    @Query(IMAGE_ROW + " where (i.uploadedAt, i.id) < (:uploadedAt, :id) order by i.uploadedAt desc, i.id desc")
+    List<ImageRow> findFeedAfter(@Param("uploadedAt") Instant uploadedAt, @Param("id") UUID id, Limit limit);
+
+    @Query(IMAGE_ROW + " where i.userId = :userId order by i.uploadedAt desc, i.id desc")
+    List<ImageRow> findUserFeed(@Param("userId") UUID userId, Limit limit);
+
+    @Query(IMAGE_ROW + " where i.userId = :userId and (i.uploadedAt, i.id) < (:uploadedAt, :id)"
+            + " order by i.uploadedAt desc, i.id desc")
+    List<ImageRow> findUserFeedAfter(@Param("userId") UUID userId, @Param("uploadedAt") Instant uploadedAt,
+                                     @Param("id") UUID id, Limit limit);
+
+    @Query("select i.version from ImageEntity i where i.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    @Query("select i.id as id, i.version as version from ImageEntity i order by i.uploadedAt desc")
+    List<ImageVersion> findPageVersions(Pageable pageable);
+
+    @Query("select i.id as id, i.version as version from ImageEntity i where i.userId = :userId"
+            + " order by i.uploadedAt desc")
+    List<ImageVersion> findUserPageVersions(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query("select i.id as id, i.version as version from ImageEntity i order by i.uploadedAt desc, i.id desc")
+    List<ImageVersion> findFeedVersions(Limit limit);
+
+    @Query("select i.id as id, i.version as version from ImageEntity i where (i.uploadedAt, i.id) < (:uploadedAt, :id)"
+            + " order by i.uploadedAt desc, i.id desc")
+    List<ImageVersion> findFeedVersionsAfter(@Param("uploadedAt") Instant uploadedAt, @Param("id") UUID id, Limit limit);
+
+    @Query("select i.id as id, i.version as version from ImageEntity i where i.userId = :userId"
+            + " order by i.uploadedAt desc, i.id desc")
+    List<ImageVersion> findUserFeedVersions(@Param("userId") UUID userId, Limit limit);
+
+    @Query("select i.id as id, i.version as version from ImageEntity i where i.userId = :userId"
+            + " and (i.uploadedAt, i.id) < (:uploadedAt, :id) order by i.uploadedAt desc, i.id desc")
+    List<ImageVersion> findUserFeedVersionsAfter(@Param("userId") UUID userId, @Param("uploadedAt") Instant uploadedAt,
+                                                 @Param("id") UUID id, Limit limit);
+
+    @Query("select i.likeCount from ImageEntity i where i.id = :id")
+    Optional<Integer> findLikeCountById(@Param("id") UUID id);
+
+    @Query("select i.id as id, i.likeCount as likeCount from ImageEntity i where i.id in :ids")
+    List<ImageLikeCount> findLikeCountsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @CacheEvict(cacheNames = CacheConfig.IMAGES_CACHE, key = "#id")
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = COUNTERS_SPACE))
+    @Query(value = "UPDATE gallery.images SET comment_count = comment_count + :delta, version = version + 1 WHERE id = :id", nativeQuery = true)
+    int adjustCommentCount(@Param("id") UUID id, @Param("delta") int delta);
+
+    /**
+     * Marks the image as changed for conditional GETs when something shown with it, such as a
+     * comment's text, changes without touching the row itself.
+     */
+    @CacheEvict(cacheNames = CacheConfig.IMAGES_CACHE, key = "#id")
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = COUNTERS_SPACE))
+    @Query(value = "UPDATE gallery.images SET version = version + 1 WHERE id = :id", nativeQuery = true)
+    int bumpVersion(@Param("id") UUID id);
+
+    @Query("select i.id from ImageEntity i where i.id > :after order by i.id")
+    List<UUID> findIdsAfter(@Param("after") UUID after, Limit limit);
+
+    /**
+     * Row-locks the given images until the caller's transaction ends. Like toggles and comment
+     * writes update the image row, so they queue behind the lock instead of changing the counts
+     * while {@link #reconcileCounters} recomputes them.
+     */
+    @Query(value = "SELECT id FROM gallery.images WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<UUID> lockForReconcile(@Param("ids") List<UUID> ids);
+
+    /**
+     * Recomputes both counters for the given images from the likes and comments tables and
+     * rewrites only the rows that have drifted. Returns the ids of the rows repaired, which callers
+     * evict from the caches. Must run after {@link #lockForReconcile} in the same transaction: the
+     * counts are taken from this statement's snapshot, and without the lock a like committed after
+     * it would be overwritten.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = COUNTERS_SPACE))
+    @Query(value = """
+            WITH actual AS (
+                SELECT i.id,
+                       (SELECT count(*) FROM gallery.likes l WHERE l.image_id = i.id) AS likes,
+                       (SELECT count(*) FROM gallery.comments c WHERE c.image_id = i.id) AS comments
+                FROM gallery.images i
+                WHERE i.id IN (:ids))
+            UPDATE gallery.images i
+            SET like_count = a.likes, comment_count = a.comments, version = i.version + 1
+            FROM actual a
+            WHERE i.id = a.id AND (i.like_count <> a.likes OR i.comment_count <> a.comments)
+            RETURNING i.id
+            """, nativeQuery = true)
+    List<UUID> reconcileCounters(@Param("ids") List<UUID> ids);
+
+    @CacheEvict(cacheNames = CacheConfig.IMAGES_CACHE, key = "#id")
+    @Transactional
+    @Modifying
+    @Query("update ImageEntity i set i.variantWidths = :widths, i.version = i.version + 1 where i.id = :id")
+    int updateVariantWidths(@Param("id") UUID id, @Param("widths") Integer[] widths);
 }
@@ -0,0 +1,25 @@
+package com.innowise.image.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The columns of an image that list endpoints return, selected straight into a record so that
+ * feed pages skip entity hydration and dirty-checking snapshots.
+ */
+public record ImageRow(
+        UUID id,
+        String url,
+        String description,
+        Instant uploadedAt,
+        UUID userId,
+        Integer width,
+        Integer height,
+        String mimeType,
+        Long sizeBytes,
+        Short orientation,
+        int likeCount,
+        int commentCount,
+        long version,
+        Integer[] variantWidths
+) {}
@@ -0,0 +1,51 @@
+package com.innowise.image.repository;
+
+import com.innowise.image.entity.ImageVariantJobEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface ImageVariantJobRepository extends JpaRepository<ImageVariantJobEntity, UUID> {
+
+    /**
+     * Leases up to {@code limit} due jobs by pushing their next attempt past the lease.
+     * SKIP LOCKED lets several instances poll the queue without handing out the same job twice.
+     */
+    @Transactional
+    @Query(value = """
+            UPDATE gallery.image_variant_jobs SET next_attempt_at = :leaseUntil
+            WHERE image_id IN (
+                SELECT image_id FROM gallery.image_variant_jobs
+                WHERE next_attempt_at <= :now
+                ORDER BY next_attempt_at
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED)
+            RETURNING *
+            """, nativeQuery = true)
+    List<ImageVariantJobEntity> leaseDue(@Param("now") Instant now, @Param("leaseUntil") Instant leaseUntil,
+                                         @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query("update ImageVariantJobEntity j set j.nextAttemptAt = :leaseUntil "
+            + "where j.imageId = :imageId and j.nextAttemptAt <= :now")
+    int lease(@Param("imageId") UUID imageId, @Param("now") Instant now, @Param("leaseUntil") Instant leaseUntil);
+
+    @Transactional
+    @Modifying
+    @Query("update ImageVariantJobEntity j set j.nextAttemptAt = :nextAttemptAt where j.imageId = :imageId")
+    int reschedule(@Param("imageId") UUID imageId, @Param("nextAttemptAt") Instant nextAttemptAt);
+
+    @Transactional
+    @Modifying
+    @Query("update ImageVariantJobEntity j set j.attempts = j.attempts + 1, j.nextAttemptAt = :nextAttemptAt, "
+            + "j.lastError = :error where j.imageId = :imageId")
+    int recordFailure(@Param("imageId") UUID imageId, @Param("nextAttemptAt") Instant nextAttemptAt,
+                      @Param("error") String error);
+}
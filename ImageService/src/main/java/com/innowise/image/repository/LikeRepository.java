@@ -2,11 +2,43 @@ package com.innowise.image.repository;
 
 import com.innowise.image.entity.LikeEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.util.Optional;
 import java.util.UUID;
 
 public interface LikeRepository extends JpaRepository<LikeEntity, UUID> {
-    Optional<LikeEntity> findByImageIdAndUserId(UUID imageId, UUID userId);
     int countByImageId(UUID imageId);
+
+    /**
+     * Flips the user's like on an image and adjusts the image's counter in one statement: the
+     * like is deleted if present, otherwise inserted. When a concurrent toggle has inserted the
+     * same like first, the insert is skipped and the like is reported as already present, with
+     * {@code changed} false. Written rows bypass the persistence context, so callers evict the
+     * image from the DTO cache and the second-level cache when {@code changed} is true.
+     */
+    @Query(value = """
+            WITH deleted AS (
+                DELETE FROM gallery.likes
+                WHERE image_id = :imageId AND user_id = :userId
+                RETURNING id
+            ), inserted AS (
+                INSERT INTO gallery.likes (id, image_id, user_id, created_at)
+                SELECT gen_random_uuid(), :imageId, :userId, now()
+                WHERE NOT EXISTS (SELECT 1 FROM deleted)
+                ON CONFLICT (image_id, user_id) DO NOTHING
+                RETURNING id
+            ), counted AS (
+                UPDATE gallery.images
+                SET like_count = like_count + (SELECT count(*) FROM inserted) - (SELECT count(*) FROM deleted),
+                    version = version + 1
+                WHERE id = :imageId AND EXISTS (SELECT 1 FROM deleted UNION ALL SELECT 1 FROM inserted)
+                RETURNING like_count
+            )
+            SELECT NOT EXISTS (SELECT 1 FROM deleted) AS liked,
+                   EXISTS (SELECT 1 FROM deleted UNION ALL SELECT 1 FROM inserted) AS changed,
+                   coalesce((SELECT like_count FROM counted),
+                            (SELECT like_count FROM gallery.images WHERE id = :imageId), 0) AS "likeCount"
+            """, nativeQuery = true)
+    LikeToggle toggle(@Param("imageId") UUID imageId, @Param("userId") UUID userId);
 }
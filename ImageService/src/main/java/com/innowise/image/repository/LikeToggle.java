@@ -0,0 +1,7 @@
+package com.innowise.image.repository;
+
+public interface LikeToggle {
+    boolean getLiked();
+    boolean getChanged();
+    int getLikeCount();
+}
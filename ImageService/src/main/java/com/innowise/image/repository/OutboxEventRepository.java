@@ -0,0 +1,35 @@
+package com.innowise.image.repository;
+
+import com.innowise.image.entity.OutboxEventEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEventEntity, Long> {
+
+    String OUTBOX_SPACE = "gallery.outbox_events";
+
+    /**
+     * Locks up to {@code limit} of the oldest events for the caller's transaction. SKIP LOCKED lets
+     * several instances relay at once without sending the same event twice; the locks are held
+     * until the caller deletes the rows and commits.
+     */
+    @Query(value = """
+            SELECT * FROM gallery.outbox_events
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<OutboxEventEntity> lockBatch(@Param("limit") int limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = OUTBOX_SPACE))
+    @Query(value = "DELETE FROM gallery.outbox_events WHERE id = ANY(:ids)", nativeQuery = true)
+    int deleteByIdIn(@Param("ids") Long[] ids);
+}
@@ -0,0 +1,20 @@
+package com.innowise.image.repository;
+
+import com.innowise.image.entity.UploadIntentEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface UploadIntentRepository extends JpaRepository<UploadIntentEntity, UUID> {
+
+    List<UploadIntentEntity> findTop100ByExpiresAtBeforeOrderByExpiresAt(Instant cutoff);
+
+    @Modifying
+    @Query("delete from UploadIntentEntity i where i.id = :id")
+    int deleteByIdReturningCount(@Param("id") UUID id);
+}
@@ -0,0 +1,41 @@
+package com.innowise.image.repository;
+
+import com.innowise.image.entity.UploadSessionEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSessionEntity, UUID> {
+
+    List<UploadSessionEntity> findTop100ByExpiresAtBeforeOrderByExpiresAt(Instant cutoff);
+
+    /**
+     * Records an uploaded part and advances the offset, but only if nobody else has moved the
+     * offset since the chunk was accepted. Returns 0 when the expected offset no longer matches.
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "gallery.upload_sessions"))
+    @Query(value = """
+            UPDATE gallery.upload_sessions
+            SET received_bytes = received_bytes + :length,
+                part_etags = array_append(part_etags, CAST(:etag AS text)),
+                expires_at = :expiresAt
+            WHERE id = :id AND received_bytes = :offset
+            """, nativeQuery = true)
+    int appendPart(@Param("id") UUID id, @Param("offset") long offset, @Param("length") long length,
+                   @Param("etag") String etag, @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Query("delete from UploadSessionEntity s where s.id = :id")
+    int deleteByIdReturningCount(@Param("id") UUID id);
+}
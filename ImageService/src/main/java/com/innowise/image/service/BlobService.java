@@ -0,0 +1,10 @@
+package com.innowise.image.service;
+
+import java.util.Optional;
+
+public interface BlobService {
+    String blobKey(String hash);
+    boolean exists(String hash);
+    Optional<String> contentType(String hash);
+    String acquire(String hash, long sizeBytes, String contentType);
+}
@@ -1,12 +1,15 @@
 package com.innowise.image.service;
 
 import com.innowise.image.dto.CommentDto;
-import java.util.List;
+import com.innowise.image.dto.PageResponseDto;
+
 import java.util.UUID;
 
 public interface CommentService {
     CommentDto addComment(UUID imageId, UUID userId, CommentDto request);
-    List<CommentDto> listComments(UUID imageId);
+    PageResponseDto<CommentDto> listComments(UUID imageId, String cursor, Integer size);
     CommentDto updateComment(UUID imageId, UUID commentId, UUID userId, CommentDto request);
     void deleteComment(UUID imageId, UUID commentId, UUID userId);
+    void renameAuthor(UUID userId, String username);
+    int backfillAuthorNames();
 }
\ No newline at end of file
@@ -0,0 +1,5 @@
+package com.innowise.image.service;
+
+public interface ImageCounterService {
+    int reconcile();
+}
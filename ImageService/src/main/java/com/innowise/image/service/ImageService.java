@@ -1,17 +1,32 @@
 package com.innowise.image.service;
 
+import com.innowise.image.dto.BatchUploadResponseDto;
 import com.innowise.image.dto.ImageDto;
+import com.innowise.image.dto.PageResponseDto;
 import com.innowise.image.dto.UploadResponseDto;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface ImageService {
-    UploadResponseDto uploadImage(MultipartFile file, UUID userId, String description) throws IOException;
+    CompletableFuture<UploadResponseDto> uploadImage(MultipartFile file, UUID userId, String description);
+    CompletableFuture<BatchUploadResponseDto> uploadImages(List<MultipartFile> files, UUID userId, List<String> descriptions);
+    UploadResponseDto uploadImageStream(HttpServletRequest request, UUID userId) throws IOException;
+    UploadResponseDto registerImage(String key, UUID userId, String description);
     ImageDto getImage(UUID id);
+    void writeImageContent(UUID id, HttpServletResponse response) throws IOException;
     Page<ImageDto> getUserImages(UUID userId, Pageable pageable);
     Page<ImageDto> getAllImages(Pageable pageable);
-}
\ No newline at end of file
+    PageResponseDto<ImageDto> getImageFeed(String cursor, int size);
+    PageResponseDto<ImageDto> getUserImageFeed(UUID userId, String cursor, int size);
+    String getImageVersionTag(UUID id);
+    String getImagesVersionTag(String cursor, Pageable pageable);
+    String getUserImagesVersionTag(UUID userId, String cursor, Pageable pageable);
+}
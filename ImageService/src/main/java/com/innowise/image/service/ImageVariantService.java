@@ -0,0 +1,11 @@
+package com.innowise.image.service;
+
+import java.util.Map;
+import java.util.UUID;
+
+public interface ImageVariantService {
+    void enqueue(UUID imageId, String objectKey);
+    void enqueueAll(Map<UUID, String> objectKeys);
+    int dispatchDueJobs();
+    String variantKey(UUID imageId, int width);
+}
@@ -1,8 +1,13 @@
 package com.innowise.image.service;
 
+import com.innowise.image.dto.LikeToggleDto;
+
+import java.util.Collection;
+import java.util.Map;
 import java.util.UUID;
 
 public interface LikeService {
-    void toggleLike(UUID imageId, UUID userId);
+    LikeToggleDto toggleLike(UUID imageId, UUID userId);
     int countLikes(UUID imageId);
+    Map<UUID, Integer> countLikes(Collection<UUID> imageIds);
 }
\ No newline at end of file
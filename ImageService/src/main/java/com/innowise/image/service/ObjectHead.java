@@ -0,0 +1,7 @@
+package com.innowise.image.service;
+
+/**
+ * What a HEAD request reports about a stored object.
+ */
+public record ObjectHead(long contentLength, String contentType) {
+}
@@ -0,0 +1,5 @@
+package com.innowise.image.service;
+
+public interface OutboxRelayService {
+    int relay();
+}
@@ -1,6 +1,28 @@
 package com.innowise.image.service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 public interface S3Service {
     String upload(byte[] data, String key, String contentType);
+    long uploadStream(InputStream content, String key, String contentType) throws IOException;
+    CompletableFuture<Void> uploadAsync(InputStream content, long contentLength, String key, String contentType);
+    String startMultipart(String key, String contentType);
+    String uploadPart(String key, String uploadId, int partNumber, InputStream content, long length);
+    void completeMultipart(String key, String uploadId, List<String> eTags);
+    void abortMultipart(String key, String uploadId);
+    String presignPut(String key, String contentType, long contentLength, Duration ttl);
+    boolean exists(String key);
+    Optional<ObjectHead> head(String key);
+    CompletableFuture<Boolean> existsAsync(String key);
+    InputStream openStream(String key);
+    long download(String key, WritableByteChannel target) throws IOException;
+    void copy(String sourceKey, String targetKey);
     void delete(String key);
+    CompletableFuture<Void> deleteAsync(String key);
 }
@@ -0,0 +1,13 @@
+package com.innowise.image.service;
+
+import com.innowise.image.dto.UploadIntentDto;
+import com.innowise.image.dto.UploadIntentRequestDto;
+import com.innowise.image.dto.UploadResponseDto;
+
+import java.util.UUID;
+
+public interface UploadIntentService {
+    UploadIntentDto createIntent(UUID userId, UploadIntentRequestDto request);
+    UploadResponseDto commit(UUID intentId, UUID userId);
+    int sweepExpired();
+}
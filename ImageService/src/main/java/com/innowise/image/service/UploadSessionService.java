@@ -0,0 +1,16 @@
+package com.innowise.image.service;
+
+import com.innowise.image.dto.UploadResponseDto;
+import com.innowise.image.dto.UploadSessionDto;
+import com.innowise.image.dto.UploadSessionRequestDto;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+public interface UploadSessionService {
+    UploadSessionDto createSession(UUID userId, UploadSessionRequestDto request);
+    UploadSessionDto getSession(UUID sessionId, UUID userId);
+    long appendChunk(UUID sessionId, UUID userId, long offset, InputStream content, long length);
+    UploadResponseDto complete(UUID sessionId, UUID userId);
+    int sweepExpired();
+}
@@ -0,0 +1,47 @@
+package com.innowise.image.service.impl;
+
+import com.innowise.image.entity.BlobEntity;
+import com.innowise.image.repository.BlobRepository;
+import com.innowise.image.service.BlobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Content-addressed storage: every distinct file is stored once under its SHA-256 digest and
+ * shared by all images that reference it.
+ */
+@Service
+@RequiredArgsConstructor
+public class BlobServiceImpl implements BlobService {
+
+    private static final String BLOB_PREFIX = "sha256/";
+
+    private final BlobRepository blobRepository;
+
+    @Override
+    public String blobKey(String hash) {
+        return BLOB_PREFIX + hash;
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return blobRepository.existsById(hash);
+    }
+
+    @Override
+    public Optional<String> contentType(String hash) {
+        return blobRepository.findById(hash).map(BlobEntity::getContentType);
+    }
+
+    /**
+     * Adds a reference to the blob and returns its object key. The object must already be in S3.
+     */
+    @Override
+    public String acquire(String hash, long sizeBytes, String contentType) {
+        String key = blobKey(hash);
+        blobRepository.acquire(hash, key, sizeBytes, contentType);
+        return key;
+    }
+}
@@ -1,76 +1,180 @@
 package com.innowise.image.service.impl;
 
-import com.innowise.image.client.AuthServiceClient;
+import com.innowise.image.config.CacheConfig;
 import com.innowise.image.dto.CommentDto;
+import com.innowise.image.dto.PageResponseDto;
 import com.innowise.image.entity.CommentEntity;
+import com.innowise.image.exception.BadRequestException;
 import com.innowise.image.exception.NotFoundException;
+import com.innowise.image.mapper.CommentMapper;
 import com.innowise.image.repository.CommentRepository;
+import com.innowise.image.repository.CommentRow;
+import com.innowise.image.repository.ImageRepository;
 import com.innowise.image.service.CommentService;
 import com.innowise.image.service.KafkaProducerService;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class CommentServiceImpl implements CommentService {
 
     private final CommentRepository commentRepository;
+    private final ImageRepository imageRepository;
     private final KafkaProducerService kafkaProducerService;
-    private final AuthServiceClient authServiceClient;
-    private final ModelMapper modelMapper;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final UsernameLoader usernameLoader;
+    private final CommentMapper commentMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
 
+    @Value("${image.comments.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${image.comments.max-page-size:200}")
+    private int maxPageSize;
+
+    @Value("${image.comments.rename-batch-size:500}")
+    private int renameBatchSize;
+
+    @Value("${image.comments.author-backfill-batch-size:100}")
+    private int authorBackfillBatchSize;
+
+    /**
+     * The author name is resolved before the transaction opens, so no connection is held across the
+     * call to the auth service. When it cannot be resolved the comment is stored without it and
+     * {@link #backfillAuthorNames()} fills it in later.
+     */
     @Override
     public CommentDto addComment(UUID imageId, UUID userId, CommentDto request) {
         CommentEntity comment = CommentEntity.builder()
                 .imageId(imageId)
                 .userId(userId)
+                .authorName(usernameLoader.getUsername(userId))
                 .content(request.getContent())
                 .createdAt(Instant.now())
                 .build();
-        CommentEntity savedComment = commentRepository.save(comment);
-        kafkaProducerService.sendCommentEvent(userId, imageId, savedComment.getId(), request.getContent(), true);
+        transactionTemplate.executeWithoutResult(status -> {
+            CommentEntity savedComment = commentRepository.save(comment);
+            imageRepository.adjustCommentCount(imageId, 1);
+            entityCacheEvictor.evictImage(imageId);
+            kafkaProducerService.sendCommentEvent(userId, imageId, savedComment.getId(), request.getContent(), true);
+        });
 
-        CommentDto commentDto = modelMapper.map(comment, CommentDto.class);
-        commentDto.setAuthorName(authServiceClient.getUsernameById(userId));
-        return commentDto;
+        return commentMapper.toDto(comment);
     }
 
     @Override
+    @Transactional
     public CommentDto updateComment(UUID imageId, UUID commentId, UUID userId, CommentDto request) {
         CommentEntity comment = commentRepository.findByIdAndImageIdAndUserIdOrderByCreatedAtDesc(commentId, imageId, userId)
                 .orElseThrow(() -> new NotFoundException("Comment not found"));
         comment.setContent(request.getContent());
         commentRepository.save(comment);
-        CommentDto commentDto = modelMapper.map(comment, CommentDto.class);
-        commentDto.setAuthorName(authServiceClient.getUsernameById(userId));
-        return commentDto;
+        imageRepository.bumpVersion(imageId);
+        entityCacheEvictor.evictImage(imageId);
+        return commentMapper.toDto(comment);
     }
 
     @Override
+    @Transactional
     public void deleteComment(UUID imageId, UUID commentId, UUID userId) {
         CommentEntity comment = commentRepository.findByIdAndImageIdAndUserIdOrderByCreatedAtDesc(commentId, imageId, userId)
                 .orElseThrow(() -> new NotFoundException("Comment not found"));
         String content = comment.getContent();
         commentRepository.delete(comment);
+        imageRepository.adjustCommentCount(imageId, -1);
+        entityCacheEvictor.evictImage(imageId);
         kafkaProducerService.sendCommentEvent(userId, imageId, commentId, content, false);
     }
 
+    /**
+     * Keyset-paginated like the image feed: newest first, each page one index range scan from the
+     * cursor's {@code (created_at, id)}, with one extra row fetched to tell whether more follow.
+     * Requested sizes above the configured maximum are clamped to it. Author names are read from
+     * the comments themselves, so listing makes no call to the auth service.
+     */
+    @Override
+    public PageResponseDto<CommentDto> listComments(UUID imageId, String cursor, Integer size) {
+        if (size != null && size < 1) {
+            throw new BadRequestException("size must be positive");
+        }
+        int pageSize = size == null ? defaultPageSize : Math.min(size, maxPageSize);
+        Limit limit = Limit.of(pageSize + 1);
+        List<CommentRow> comments;
+        if (cursor == null || cursor.isBlank()) {
+            comments = commentRepository.findImageComments(imageId, limit);
+        } else {
+            FeedCursor after = FeedCursor.decode(cursor);
+            comments = commentRepository.findImageCommentsAfter(imageId, after.sortedAt(), after.id(), limit);
+        }
+
+        boolean last = comments.size() <= pageSize;
+        List<CommentRow> page = last ? comments : comments.subList(0, pageSize);
+        return PageResponseDto.<CommentDto>builder()
+                .content(page.stream().map(commentMapper::toDto).toList())
+                .size(pageSize)
+                .last(last)
+                .nextCursor(last ? null : FeedCursor.after(page.get(page.size() - 1)).encode())
+                .build();
+    }
+
+    /**
+     * Rewrites the author name stored on the user's comments, one batch per transaction so a prolific
+     * author never holds row locks on all of their comments at once. Each batch bumps the version of
+     * the images it touched; those images are evicted once the batch has committed.
+     */
+    @Override
+    public void renameAuthor(UUID userId, String username) {
+        usernameLoader.evict(userId);
+        rewriteAuthorName(userId, username);
+    }
+
+    /**
+     * Fills in author names that could not be resolved when their comments were written. Users
+     * whose names still cannot be resolved are left for the next run.
+     */
     @Override
-    public List<CommentDto> listComments(UUID imageId) {
-        List<CommentEntity> comments = commentRepository.findAllByImageIdOrderByCreatedAtDesc(imageId);
-        return comments.stream()
-                .map(this::toCommentDto)
-                .toList();
+    @Scheduled(fixedDelayString = "${image.comments.author-backfill-interval:PT1M}")
+    public int backfillAuthorNames() {
+        List<UUID> userIds = commentRepository.findUserIdsMissingAuthorName(authorBackfillBatchSize);
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        Map<UUID, String> names = usernameLoader.getUsernames(userIds);
+        names.forEach(this::rewriteAuthorName);
+        if (names.size() < userIds.size()) {
+            log.warn("Could not resolve author names for {} of {} users", userIds.size() - names.size(), userIds.size());
+        }
+        return names.size();
     }
 
-    private CommentDto toCommentDto(CommentEntity comment) {
-        CommentDto dto = modelMapper.map(comment, CommentDto.class);
-        dto.setAuthorName(authServiceClient.getUsernameById(comment.getUserId()));
-        return dto;
+    private void rewriteAuthorName(UUID userId, String username) {
+        Cache images = cacheManager.getCache(CacheConfig.IMAGES_CACHE);
+        List<UUID> renamed;
+        do {
+            renamed = commentRepository.renameAuthor(userId, username, renameBatchSize);
+            for (UUID imageId : new HashSet<>(renamed)) {
+                if (images != null) {
+                    images.evict(imageId);
+                }
+                entityCacheEvictor.evictImage(imageId);
+            }
+        } while (renamed.size() == renameBatchSize);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,233 @@
+package com.innowise.image.service.impl;
+
+import com.innowise.image.config.ObjectCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Read-through, size-bounded LRU cache of S3 objects on local disk. Each object is stored in a
+ * file named after the SHA-256 of its key; the in-memory index is split into segments, each an
+ * access-ordered map with its own lock and an equal share of the byte budget, so concurrent
+ * reads of different objects rarely contend. File I/O never happens under a segment lock.
+ * The index is rebuilt from the directory on startup, oldest files first.
+ */
+@Slf4j
+@Component
+public class DiskObjectCache {
+
+    private static final String TMP_SUFFIX = ".tmp";
+
+    @FunctionalInterface
+    public interface Loader {
+        void load(Path target) throws IOException;
+    }
+
+    private final Path directory;
+    private final Segment[] segments;
+    private final AtomicLong sizeBytes = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public DiskObjectCache(ObjectCacheProperties properties, MeterRegistry meterRegistry) throws IOException {
+        this.directory = properties.directory();
+        long segmentBudget = properties.maxSize().toBytes() / properties.segments();
+        this.segments = new Segment[properties.segments()];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(segmentBudget);
+        }
+        this.hits = Counter.builder("image.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("image.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("image.cache.evictions").register(meterRegistry);
+        Gauge.builder("image.cache.size", sizeBytes, AtomicLong::get).baseUnit("bytes").register(meterRegistry);
+
+        Files.createDirectories(directory);
+        rebuildIndex();
+    }
+
+    /**
+     * Writes the object to {@code target}, loading it into the cache first on a miss.
+     * Objects larger than a segment's budget are served from a temporary file and not retained.
+     *
+     * @return number of bytes written
+     */
+    public long transferTo(String key, Loader loader, WritableByteChannel target) throws IOException {
+        String name = fileName(key);
+        Segment segment = segmentFor(name);
+
+        if (segment.touch(name)) {
+            try (FileChannel channel = FileChannel.open(directory.resolve(name), StandardOpenOption.READ)) {
+                hits.increment();
+                return transfer(channel, target);
+            } catch (NoSuchFileException e) {
+                segment.remove(name);
+            }
+        }
+
+        misses.increment();
+        Path tmp = Files.createTempFile(directory, name, TMP_SUFFIX);
+        try {
+            loader.load(tmp);
+            long length = Files.size(tmp);
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.READ)) {
+                if (length <= segment.budget) {
+                    Files.move(tmp, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                    evict(segment.put(name, length));
+                }
+                return transfer(channel, target);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public long size() {
+        return sizeBytes.get();
+    }
+
+    private void rebuildIndex() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(Files::isRegularFile).toList();
+        }
+
+        record CachedFile(Path path, BasicFileAttributes attributes) {}
+        List<CachedFile> cached = new ArrayList<>();
+        for (Path file : files) {
+            if (file.getFileName().toString().endsWith(TMP_SUFFIX)) {
+                Files.deleteIfExists(file);
+            } else {
+                cached.add(new CachedFile(file, Files.readAttributes(file, BasicFileAttributes.class)));
+            }
+        }
+        cached.sort(Comparator.comparing(file -> file.attributes().lastModifiedTime()));
+        for (CachedFile file : cached) {
+            String name = file.path().getFileName().toString();
+            evict(segmentFor(name).put(name, file.attributes().size()));
+        }
+        log.info("Object cache at {} restored {} files ({} bytes)", directory, cached.size(), sizeBytes.get());
+    }
+
+    private void evict(List<String> names) {
+        for (String name : names) {
+            evictions.increment();
+            try {
+                Files.deleteIfExists(directory.resolve(name));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private Segment segmentFor(String name) {
+        return segments[Math.floorMod(name.hashCode(), segments.length)];
+    }
+
+    private static long transfer(FileChannel source, WritableByteChannel target) throws IOException {
+        long size = source.size();
+        long position = 0;
+        while (position < size) {
+            position += source.transferTo(position, size - position, target);
+        }
+        return size;
+    }
+
+    private static String fileName(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final long budget;
+        private long used;
+
+        private Segment(long budget) {
+            this.budget = budget;
+        }
+
+        boolean touch(String name) {
+            lock.lock();
+            try {
+                return entries.get(name) != null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Indexes the file and returns the least recently used entries evicted to stay within budget.
+         */
+        List<String> put(String name, long length) {
+            List<String> evicted = new ArrayList<>();
+            lock.lock();
+            try {
+                Long previous = entries.put(name, length);
+                adjust(length - (previous == null ? 0 : previous));
+                Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+                while (used > budget && eldest.hasNext()) {
+                    Map.Entry<String, Long> entry = eldest.next();
+                    if (entry.getKey().equals(name)) {
+                        continue;
+                    }
+                    adjust(-entry.getValue());
+                    evicted.add(entry.getKey());
+                    eldest.remove();
+                }
+            } finally {
+                lock.unlock();
+            }
+            return evicted;
+        }
+
+        void remove(String name) {
+            lock.lock();
+            try {
+                Long length = entries.remove(name);
+                if (length != null) {
+                    adjust(-length);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void adjust(long delta) {
+            used += delta;
+            sizeBytes.addAndGet(delta);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.innowise.image.service.impl;
+
+import com.innowise.image.entity.ImageEntity;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * Evicts single image rows from the Hibernate second-level cache after counter updates. Those
+ * updates run as native statements on their own query space so that Hibernate does not drop the
+ * whole images region on every like or comment; the one row they touch is evicted here instead.
+ * Eviction happens straight away and again once the transaction completes, so a concurrent reader
+ * cannot put the pre-update row back in between.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void evictImage(UUID id) {
+        evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(id);
+                }
+            });
+        }
+    }
+
+    private void evict(UUID id) {
+        entityManagerFactory.getCache().evict(ImageEntity.class, id);
+    }
+}
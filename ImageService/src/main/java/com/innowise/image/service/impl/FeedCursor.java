@@ -0,0 +1,46 @@
+package com.innowise.image.service.impl;
+
+import com.innowise.image.exception.BadRequestException;
+import com.innowise.image.repository.CommentRow;
+import com.innowise.image.repository.ImageRow;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a newest-first list ordered by {@code (timestamp DESC, id DESC)}, i.e. image feeds
+ * by {@code uploaded_at} and comment lists by {@code created_at}: the sort key of the last row
+ * returned. Exposed to clients only as an opaque URL-safe token.
+ */
+record FeedCursor(Instant sortedAt, UUID id) {
+
+    static FeedCursor after(ImageRow image) {
+        return new FeedCursor(image.uploadedAt(), image.id());
+    }
+
+    static FeedCursor after(CommentRow comment) {
+        return new FeedCursor(comment.createdAt(), comment.id());
+    }
+
+    String encode() {
+        String raw = sortedAt.getEpochSecond() + ":" + sortedAt.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static FeedCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":", 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new FeedCursor(
+                    Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])),
+                    UUID.fromString(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
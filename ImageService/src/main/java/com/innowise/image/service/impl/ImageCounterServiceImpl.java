@@ -0,0 +1,79 @@
+package com.innowise.image.service.impl;
+
+import com.innowise.image.config.CacheConfig;
+import com.innowise.image.repository.ImageRepository;
+import com.innowise.image.service.ImageCounterService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The like and comment counters on images are maintained in the same transaction as the like or
+ * comment row, but a failed write elsewhere or a manual fix in the database can still leave them
+ * off. {@link #reconcile()} walks the images table in id order, one short transaction per batch,
+ * and rewrites the counters that no longer match the likes and comments tables. Each batch locks
+ * its image rows before counting, so concurrent likes and comments wait rather than being lost.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageCounterServiceImpl implements ImageCounterService {
+
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+
+    private final ImageRepository imageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final EntityCacheEvictor entityCacheEvictor;
+
+    @Value("${image.counters.reconcile-batch-size:500}")
+    private int batchSize;
+
+    @Override
+    @Scheduled(fixedDelayString = "${image.counters.reconcile-interval:PT1H}",
+            initialDelayString = "${image.counters.reconcile-interval:PT1H}")
+    public int reconcile() {
+        int repaired = 0;
+        UUID after = MIN_ID;
+        List<UUID> ids;
+        do {
+            ids = imageRepository.findIdsAfter(after, Limit.of(batchSize));
+            if (!ids.isEmpty()) {
+                repaired += reconcileBatch(ids);
+                after = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == batchSize);
+
+        if (repaired > 0) {
+            log.warn("Repaired like/comment counters on {} images", repaired);
+        }
+        return repaired;
+    }
+
+    /**
+     * Only the repaired images are evicted, from both the DTO cache and the second-level cache;
+     * batches where nothing drifted leave the caches alone.
+     */
+    private int reconcileBatch(List<UUID> ids) {
+        List<UUID> repaired = transactionTemplate.execute(status -> {
+            imageRepository.lockForReconcile(ids);
+            List<UUID> repairedIds = imageRepository.reconcileCounters(ids);
+            Cache images = cacheManager.getCache(CacheConfig.IMAGES_CACHE);
+            if (images != null) {
+                repairedIds.forEach(images::evict);
+            }
+            repairedIds.forEach(entityCacheEvictor::evictImage);
+            return repairedIds;
+        });
+        return repaired == null ? 0 : repaired.size();
+    }
+}
@@ -0,0 +1,137 @@
+package com.innowise.image.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * Reads dimensions, format and EXIF orientation from an image's headers. Only the header
+ * segments are consumed, pixel data is never decoded, and the stream is cached in memory
+ * rather than in an ImageIO temp file.
+ */
+@Slf4j
+@Component
+public class ImageMetadataReader {
+
+    /**
+     * Enough of the file to reach the JPEG frame header past a full-size EXIF segment with an
+     * embedded thumbnail; used where the content cannot be read twice.
+     */
+    public static final int HEAD_BYTES = 128 * 1024;
+
+    public static final short DEFAULT_ORIENTATION = 1;
+
+    private static final int SOI = 0xFFD8;
+    private static final int APP1 = 0xFFE1;
+    private static final int SOF0 = 0xFFC0;
+    private static final int SOF15 = 0xFFCF;
+    private static final int DHT = 0xFFC4;
+    private static final int SOS = 0xFFDA;
+    private static final byte[] EXIF_HEADER = "Exif\0\0".getBytes(StandardCharsets.ISO_8859_1);
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    public record ImageMetadata(int width, int height, String mimeType, short orientation) {}
+
+    public Optional<ImageMetadata> read(InputStream content) {
+        try (ImageInputStream iis = new MemoryCacheImageInputStream(content)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                return Optional.empty();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, false, true);
+                String[] mimeTypes = reader.getOriginatingProvider().getMIMETypes();
+                return Optional.of(new ImageMetadata(
+                        reader.getWidth(0),
+                        reader.getHeight(0),
+                        mimeTypes != null && mimeTypes.length > 0 ? mimeTypes[0] : null,
+                        orientation(reader, iis)));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not read image headers: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Walks the JPEG marker segments up to the first frame or scan header looking for an Exif
+     * APP1 segment. Done by hand rather than through the ImageIO metadata tree, which refuses
+     * files whose JFIF and Exif segments are not in the order it expects.
+     */
+    private static short orientation(ImageReader reader, ImageInputStream iis) {
+        try {
+            if (!"jpeg".equalsIgnoreCase(reader.getFormatName())) {
+                return DEFAULT_ORIENTATION;
+            }
+            iis.seek(0);
+            if (iis.readUnsignedShort() != SOI) {
+                return DEFAULT_ORIENTATION;
+            }
+            while (true) {
+                int marker = iis.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == SOS || (marker >= SOF0 && marker <= SOF15 && marker != DHT)) {
+                    return DEFAULT_ORIENTATION;
+                }
+                int length = iis.readUnsignedShort() - 2;
+                if (marker == APP1) {
+                    byte[] payload = new byte[length];
+                    iis.readFully(payload);
+                    Short orientation = exifOrientation(payload);
+                    if (orientation != null) {
+                        return orientation;
+                    }
+                } else {
+                    iis.skipBytes(length);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not read JPEG markers: {}", e.getMessage());
+            return DEFAULT_ORIENTATION;
+        }
+    }
+
+    /**
+     * Looks up the orientation tag in IFD0 of an APP1 Exif payload.
+     */
+    static Short exifOrientation(byte[] app1) {
+        if (app1.length < EXIF_HEADER.length + 8) {
+            return null;
+        }
+        for (int i = 0; i < EXIF_HEADER.length; i++) {
+            if (app1[i] != EXIF_HEADER[i]) {
+                return null;
+            }
+        }
+        ByteBuffer tiff = ByteBuffer.wrap(app1, EXIF_HEADER.length, app1.length - EXIF_HEADER.length).slice();
+        try {
+            tiff.order(tiff.getShort(0) == 0x4949 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+            int ifd = tiff.getInt(4);
+            int entries = Short.toUnsignedInt(tiff.getShort(ifd));
+            for (int i = 0; i < entries; i++) {
+                int entry = ifd + 2 + i * 12;
+                if (Short.toUnsignedInt(tiff.getShort(entry)) == ORIENTATION_TAG) {
+                    short value = tiff.getShort(entry + 8);
+                    return value >= 1 && value <= 8 ? value : null;
+                }
+            }
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            return null;
+        }
+        return null;
+    }
+}
@@ -1,62 +1,317 @@
 package com.innowise.image.service.impl;
 
+import com.innowise.image.config.CacheConfig;
+import com.innowise.image.dto.BatchUploadResponseDto;
+import com.innowise.image.dto.BatchUploadResultDto;
 import com.innowise.image.dto.ImageDto;
+import com.innowise.image.dto.PageResponseDto;
 import com.innowise.image.dto.UploadResponseDto;
 import com.innowise.image.entity.ImageEntity;
+import com.innowise.image.exception.BadRequestException;
 import com.innowise.image.exception.NotFoundException;
+import com.innowise.image.mapper.ImageMapper;
 import com.innowise.image.repository.ImageRepository;
+import com.innowise.image.repository.ImageRow;
+import com.innowise.image.repository.ImageVersion;
+import com.innowise.image.service.BlobService;
 import com.innowise.image.service.ImageService;
+import com.innowise.image.service.ImageVariantService;
+import com.innowise.image.service.S3Service;
+import com.innowise.image.service.impl.ImageMetadataReader.ImageMetadata;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.fileupload2.core.DiskFileItem;
+import org.apache.commons.fileupload2.core.DiskFileItemFactory;
+import org.apache.commons.fileupload2.core.FileItemInput;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
+import org.apache.commons.fileupload2.core.FileUploadException;
+import org.apache.commons.fileupload2.jakarta.servlet6.JakartaServletFileUpload;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ImageServiceImpl implements ImageService {
 
-    private final ImageRepository imageRepository;
-    private final ModelMapper modelMapper;
-    private final S3Client s3Client;
+    private static final String STAGING_PREFIX = "staging/";
 
-    @Value("${s3.bucket}")
-    private String s3Bucket;
+    private final ImageRepository imageRepository;
+    private final ImageMapper imageMapper;
+    private final S3Service s3Service;
+    private final ImageVariantService imageVariantService;
+    private final BlobService blobService;
+    private final ImageMetadataReader imageMetadataReader;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${s3.external-url:http://localhost:4566}")
     private String s3ExternalUrl;
 
+    @Value("${image.upload.stream.max-file-size:512MB}")
+    private DataSize maxStreamFileSize;
+
+    @Value("${image.upload.batch.max-files:50}")
+    private int maxBatchFiles;
+
+    @Value("${image.upload.batch.concurrency:4}")
+    private int batchConcurrency;
+
+    private record StoredBlob(String hash, long size, String contentType, ImageMetadata metadata) {}
+
+    /**
+     * Hashes the already-spooled file first, so a duplicate of content we already hold is
+     * registered against the existing blob without any S3 traffic. New content is put through
+     * the async S3 client and registered once S3 has acknowledged the write; the returned future
+     * completes on the S3 transfer executor, not the request thread.
+     */
     @Override
-    public UploadResponseDto uploadImage(MultipartFile file, UUID userId, String description) throws IOException {
-        String key = UUID.randomUUID() + "-" + file.getOriginalFilename();
-
-        s3Client.putObject(
-                PutObjectRequest.builder()
-                        .bucket(s3Bucket)
-                        .key(key)
-                        .contentType(file.getContentType())
-                        .checksumAlgorithm((String) null)
-                        .build(),
-                software.amazon.awssdk.core.sync.RequestBody.fromInputStream(file.getInputStream(), file.getSize())
-        );
-
-        String fileUrl = generateExternalImageUrl(key);
-
-        ImageEntity image = ImageEntity.builder()
-                .url(fileUrl)
-                .description(description)
-                .uploadedAt(Instant.now())
-                .userId(userId)
+    public CompletableFuture<UploadResponseDto> uploadImage(MultipartFile file, UUID userId, String description) {
+        return storeBlob(file).thenApply(blob -> registerBlob(blob, userId, description));
+    }
+
+    /**
+     * Stores up to {@code image.upload.batch.concurrency} files at a time: each worker chain
+     * picks the next unclaimed file once its previous upload completes, so no thread waits on
+     * a slot. Successful files are then registered together, with the image rows inserted as
+     * one JDBC batch. A failed file is reported in its result entry and does not fail the batch.
+     */
+    @Override
+    public CompletableFuture<BatchUploadResponseDto> uploadImages(List<MultipartFile> files, UUID userId,
+                                                                  List<String> descriptions) {
+        if (files.isEmpty() || files.size() > maxBatchFiles) {
+            throw new BadRequestException("A batch must contain between 1 and " + maxBatchFiles + " files");
+        }
+
+        StoredBlob[] stored = new StoredBlob[files.size()];
+        String[] errors = new String[files.size()];
+        AtomicInteger next = new AtomicInteger();
+        CompletableFuture<?>[] workers = IntStream.range(0, Math.min(batchConcurrency, files.size()))
+                .mapToObj(i -> storeNext(files, next, stored, errors))
+                .toArray(CompletableFuture[]::new);
+
+        return CompletableFuture.allOf(workers)
+                .thenApply(ignored -> registerBatch(files, userId, descriptions, stored, errors));
+    }
+
+    private CompletableFuture<Void> storeNext(List<MultipartFile> files, AtomicInteger next,
+                                              StoredBlob[] stored, String[] errors) {
+        int index = next.getAndIncrement();
+        if (index >= files.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return storeBlob(files.get(index))
+                .handle((blob, ex) -> {
+                    if (ex == null) {
+                        stored[index] = blob;
+                    } else {
+                        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                        errors[index] = cause.getMessage();
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> storeNext(files, next, stored, errors));
+    }
+
+    /**
+     * Runs on the S3 transfer executor, outside any request transaction, so the blob references,
+     * image rows and variant jobs are written in one transaction of their own.
+     */
+    private BatchUploadResponseDto registerBatch(List<MultipartFile> files, UUID userId, List<String> descriptions,
+                                                 StoredBlob[] stored, String[] errors) {
+        Instant now = Instant.now();
+        ImageEntity[] images = new ImageEntity[files.size()];
+        List<ImageEntity> saved = transactionTemplate.execute(status -> {
+            for (int i = 0; i < files.size(); i++) {
+                if (stored[i] != null) {
+                    String key = blobService.acquire(stored[i].hash(), stored[i].size(), stored[i].contentType());
+                    String description = descriptions != null && i < descriptions.size() ? descriptions.get(i) : null;
+                    images[i] = newImage(key, stored[i], userId, description, now);
+                }
+            }
+
+            List<ImageEntity> rows = imageRepository.saveAll(Arrays.stream(images).filter(Objects::nonNull).toList());
+            Map<UUID, String> variantJobs = new LinkedHashMap<>();
+            rows.forEach(image -> variantJobs.put(image.getId(), image.getObjectKey()));
+            imageVariantService.enqueueAll(variantJobs);
+            return rows;
+        });
+
+        List<BatchUploadResultDto> results = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            BatchUploadResultDto result = BatchUploadResultDto.builder()
+                    .fileName(files.get(i).getOriginalFilename())
+                    .error(errors[i])
+                    .build();
+            if (images[i] != null) {
+                result.setId(images[i].getId());
+                result.setUrl(images[i].getUrl());
+            }
+            results.add(result);
+        }
+        return BatchUploadResponseDto.builder()
+                .succeeded(saved.size())
+                .failed(files.size() - saved.size())
+                .results(results)
                 .build();
+    }
+
+    /**
+     * Hashes the already-spooled file first, so a duplicate of content we already hold is
+     * registered against the existing blob without any S3 traffic. The image headers are parsed
+     * from the first bytes of that same pass. New content is put through the async S3 client;
+     * the returned future completes on the S3 transfer executor, not the request thread.
+     */
+    private CompletableFuture<StoredBlob> storeBlob(MultipartFile file) {
+        try {
+            MessageDigest digest = newSha256();
+            ImageMetadata metadata;
+            try (InputStream content = new DigestInputStream(file.getInputStream(), digest)) {
+                metadata = readMetadata(content.readNBytes(ImageMetadataReader.HEAD_BYTES));
+                content.transferTo(OutputStream.nullOutputStream());
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            StoredBlob blob = new StoredBlob(hash, file.getSize(), file.getContentType(), metadata);
+            if (blobService.exists(hash)) {
+                return CompletableFuture.completedFuture(blob);
+            }
+            return s3Service.uploadAsync(file.getInputStream(), file.getSize(), blobService.blobKey(hash), file.getContentType())
+                    .thenApply(ignored -> blob);
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Multipart upload that bypasses the servlet multipart resolver: the "file" part is read
+     * straight off the request body and piped into {@link S3Service#uploadStream}, so nothing is
+     * buffered to memory or a temp file first. Form fields may appear before or after the file.
+     * The digest is computed as the bytes pass through, so the object lands under a staging key
+     * and is then either dropped (duplicate) or copied server-side to its content-hash key. The
+     * image headers are parsed from a bounded prefix held back before the part is piped on.
+     */
+    @Override
+    public UploadResponseDto uploadImageStream(HttpServletRequest request, UUID userId) throws IOException {
+        JakartaServletFileUpload<DiskFileItem, DiskFileItemFactory> upload = new JakartaServletFileUpload<>();
+        upload.setFileSizeMax(maxStreamFileSize.toBytes());
+
+        String stagingKey = null;
+        boolean staged = false;
+        String hash = null;
+        String contentType = null;
+        ImageMetadata metadata = null;
+        long size = 0;
+        String description = null;
+        try {
+            try {
+                FileItemInputIterator items = upload.getItemIterator(request);
+                while (items.hasNext()) {
+                    FileItemInput item = items.next();
+                    if (item.isFormField() && "description".equals(item.getFieldName())) {
+                        description = new String(item.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+                    } else if (!item.isFormField() && "file".equals(item.getFieldName()) && stagingKey == null) {
+                        stagingKey = STAGING_PREFIX + UUID.randomUUID();
+                        contentType = item.getContentType();
+                        MessageDigest digest = newSha256();
+                        InputStream part = item.getInputStream();
+                        byte[] head = part.readNBytes(ImageMetadataReader.HEAD_BYTES);
+                        metadata = readMetadata(head);
+                        try (InputStream content = new DigestInputStream(
+                                new SequenceInputStream(new ByteArrayInputStream(head), part), digest)) {
+                            size = s3Service.uploadStream(content, stagingKey, contentType);
+                        }
+                        staged = true;
+                        hash = HexFormat.of().formatHex(digest.digest());
+                    }
+                }
+            } catch (FileUploadException e) {
+                throw new BadRequestException("Invalid multipart request: " + e.getMessage());
+            }
+
+            if (stagingKey == null) {
+                throw new BadRequestException("Required part 'file' is not present");
+            }
+            if (!blobService.exists(hash)) {
+                s3Service.copy(stagingKey, blobService.blobKey(hash));
+            }
+        } finally {
+            if (staged) {
+                deleteStaging(stagingKey);
+            }
+        }
+        return registerBlob(new StoredBlob(hash, size, contentType, metadata), userId, description);
+    }
+
+    /**
+     * A failed delete must not mask the outcome of the upload itself, so it is only logged.
+     */
+    private void deleteStaging(String stagingKey) {
+        try {
+            s3Service.delete(stagingKey);
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete staging object {}: {}", stagingKey, e.getMessage());
+        }
+    }
+
+    @Override
+    @Transactional
+    public UploadResponseDto registerImage(String key, UUID userId, String description) {
+        return register(key, null, userId, description);
+    }
+
+    /**
+     * Acquires the blob reference and writes the image row in one transaction, so neither is left
+     * behind without the other; callers may run on the S3 transfer executor, outside any request
+     * transaction.
+     */
+    private UploadResponseDto registerBlob(StoredBlob blob, UUID userId, String description) {
+        return transactionTemplate.execute(status -> {
+            String key = blobService.acquire(blob.hash(), blob.size(), blob.contentType());
+            return register(key, blob, userId, description);
+        });
+    }
+
+    private UploadResponseDto register(String key, StoredBlob blob, UUID userId, String description) {
+        ImageEntity image = newImage(key, blob, userId, description, Instant.now());
         imageRepository.save(image);
+        imageVariantService.enqueue(image.getId(), key);
 
         UploadResponseDto response = new UploadResponseDto();
         response.setId(image.getId());
@@ -64,26 +319,197 @@ public class ImageServiceImpl implements ImageService {
         return response;
     }
 
+    /**
+     * Images registered from a blob carry the dimensions, format and orientation read at upload
+     * time; objects uploaded straight to S3 are registered without them.
+     */
+    private ImageEntity newImage(String key, StoredBlob blob, UUID userId, String description, Instant uploadedAt) {
+        ImageEntity.ImageEntityBuilder image = ImageEntity.builder()
+                .url(generateExternalImageUrl(key))
+                .description(description)
+                .uploadedAt(uploadedAt)
+                .userId(userId)
+                .objectKey(key);
+        if (blob != null) {
+            image.blobHash(blob.hash())
+                    .sizeBytes(blob.size())
+                    .mimeType(blob.contentType());
+            if (blob.metadata() != null) {
+                image.width(blob.metadata().width())
+                        .height(blob.metadata().height())
+                        .mimeType(Optional.ofNullable(blob.metadata().mimeType()).orElse(blob.contentType()))
+                        .orientation(blob.metadata().orientation());
+            }
+        }
+        return image.build();
+    }
+
+    private ImageMetadata readMetadata(byte[] head) {
+        return imageMetadataReader.read(new ByteArrayInputStream(head)).orElse(null);
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
     private String generateExternalImageUrl(String key) {
         return s3ExternalUrl + "/images/" + key;
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.IMAGES_CACHE, key = "#id")
     public ImageDto getImage(UUID id) {
         ImageEntity image = imageRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Image not found with id: " + id));
-        return modelMapper.map(image, ImageDto.class);
+        return toDto(image);
+    }
+
+    /**
+     * Streams the original object to the client via the local disk cache in front of S3.
+     */
+    @Override
+    public void writeImageContent(UUID id, HttpServletResponse response) throws IOException {
+        ImageEntity image = imageRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Image not found with id: " + id));
+        if (image.getObjectKey() == null) {
+            throw new NotFoundException("Content is not available for image: " + id);
+        }
+
+        response.setContentType(contentType(image));
+        s3Service.download(image.getObjectKey(), Channels.newChannel(response.getOutputStream()));
+    }
+
+    private String contentType(ImageEntity image) {
+        return Optional.ofNullable(image.getMimeType())
+                .or(() -> Optional.ofNullable(image.getBlobHash()).flatMap(blobService::contentType))
+                .or(() -> MediaTypeFactory.getMediaType(image.getObjectKey()).map(MediaType::toString))
+                .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
     }
 
     @Override
     public Page<ImageDto> getUserImages(UUID userId, Pageable pageable) {
         return imageRepository.findByUserIdOrderByUploadedAtDesc(userId, pageable)
-                .map(img -> modelMapper.map(img, ImageDto.class));
+                .map(this::toDto);
     }
 
     @Override
     public Page<ImageDto> getAllImages(Pageable pageable) {
         return imageRepository.findAllByOrderByUploadedAtDesc(pageable)
-                .map(img -> modelMapper.map(img, ImageDto.class));
+                .map(this::toDto);
+    }
+
+    /**
+     * Keyset-paginated feed: the cursor carries the sort key of the last row already seen, so
+     * every page is one index range scan from that key with no OFFSET and no count query. One
+     * row past the page size is fetched to tell whether another page follows.
+     */
+    @Override
+    public PageResponseDto<ImageDto> getImageFeed(String cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<ImageRow> images;
+        if (isFirstPage(cursor)) {
+            images = imageRepository.findFeed(limit);
+        } else {
+            FeedCursor after = FeedCursor.decode(cursor);
+            images = imageRepository.findFeedAfter(after.sortedAt(), after.id(), limit);
+        }
+        return toFeedPage(images, size);
+    }
+
+    @Override
+    public PageResponseDto<ImageDto> getUserImageFeed(UUID userId, String cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<ImageRow> images;
+        if (isFirstPage(cursor)) {
+            images = imageRepository.findUserFeed(userId, limit);
+        } else {
+            FeedCursor after = FeedCursor.decode(cursor);
+            images = imageRepository.findUserFeedAfter(userId, after.sortedAt(), after.id(), limit);
+        }
+        return toFeedPage(images, size);
+    }
+
+    /**
+     * Version tags let the controller answer conditional GETs before any entity is loaded or
+     * mapped. An image's tag is its version column, which every write to the image, its counters
+     * or its comments bumps. A page's tag digests the ids and versions of the rows the page query
+     * would return, so it also changes when rows enter or leave the page. Returns null for an
+     * unknown image.
+     */
+    @Override
+    public String getImageVersionTag(UUID id) {
+        return imageRepository.findVersionById(id).map(String::valueOf).orElse(null);
+    }
+
+    @Override
+    public String getImagesVersionTag(String cursor, Pageable pageable) {
+        if (cursor == null) {
+            return versionTag(imageRepository.findPageVersions(pageable));
+        }
+        Limit limit = Limit.of(pageable.getPageSize() + 1);
+        if (isFirstPage(cursor)) {
+            return versionTag(imageRepository.findFeedVersions(limit));
+        }
+        FeedCursor after = FeedCursor.decode(cursor);
+        return versionTag(imageRepository.findFeedVersionsAfter(after.sortedAt(), after.id(), limit));
+    }
+
+    @Override
+    public String getUserImagesVersionTag(UUID userId, String cursor, Pageable pageable) {
+        if (cursor == null) {
+            return versionTag(imageRepository.findUserPageVersions(userId, pageable));
+        }
+        Limit limit = Limit.of(pageable.getPageSize() + 1);
+        if (isFirstPage(cursor)) {
+            return versionTag(imageRepository.findUserFeedVersions(userId, limit));
+        }
+        FeedCursor after = FeedCursor.decode(cursor);
+        return versionTag(imageRepository.findUserFeedVersionsAfter(userId, after.sortedAt(), after.id(), limit));
+    }
+
+    private static String versionTag(List<ImageVersion> rows) {
+        ByteBuffer buffer = ByteBuffer.allocate(rows.size() * 3 * Long.BYTES);
+        rows.forEach(row -> buffer
+                .putLong(row.getId().getMostSignificantBits())
+                .putLong(row.getId().getLeastSignificantBits())
+                .putLong(row.getVersion()));
+        return HexFormat.of().formatHex(newSha256().digest(buffer.array()), 0, 16);
+    }
+
+    private static boolean isFirstPage(String cursor) {
+        return cursor == null || cursor.isBlank();
+    }
+
+    private PageResponseDto<ImageDto> toFeedPage(List<ImageRow> images, int size) {
+        boolean last = images.size() <= size;
+        List<ImageRow> page = last ? images : images.subList(0, size);
+        return PageResponseDto.<ImageDto>builder()
+                .content(page.stream().map(this::toDto).toList())
+                .size(size)
+                .last(last)
+                .nextCursor(last ? null : FeedCursor.after(page.get(page.size() - 1)).encode())
+                .build();
+    }
+
+    private ImageDto toDto(ImageEntity image) {
+        return withVariants(imageMapper.toDto(image), image.getVariantWidths());
+    }
+
+    private ImageDto toDto(ImageRow image) {
+        return withVariants(imageMapper.toDto(image), image.variantWidths());
+    }
+
+    private ImageDto withVariants(ImageDto dto, Integer[] variantWidths) {
+        if (variantWidths != null) {
+            Map<Integer, String> variants = new LinkedHashMap<>();
+            Arrays.stream(variantWidths).forEach(width ->
+                    variants.put(width, generateExternalImageUrl(imageVariantService.variantKey(dto.getId(), width))));
+            dto.setVariants(variants);
+        }
+        return dto;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,235 @@
+package com.innowise.image.service.impl;
+
+import com.innowise.image.config.ImageVariantProperties;
+import com.innowise.image.entity.ImageVariantJobEntity;
+import com.innowise.image.repository.ImageRepository;
+import com.innowise.image.repository.ImageVariantJobRepository;
+import com.innowise.image.service.ImageVariantService;
+import com.innowise.image.service.S3Service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Generates fixed-width JPEG derivatives of uploaded images in the background.
+ * <p>
+ * Work items live in {@code gallery.image_variant_jobs}, so nothing is lost on restart or when the
+ * bounded worker pool is saturated: a job is leased, processed on {@code imageVariantExecutor}
+ * and deleted on success, or rescheduled with exponential backoff on failure. Sources are decoded
+ * with ImageIO source subsampling, and both the decoded source and every variant stay within
+ * {@code image.variants.max-pixels}: widths whose variant would exceed it are skipped, which
+ * keeps extreme aspect ratios (very tall, narrow images) from blowing up memory.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageVariantServiceImpl implements ImageVariantService {
+
+    private static final String VARIANT_CONTENT_TYPE = "image/jpeg";
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final ImageVariantJobRepository jobRepository;
+    private final ImageRepository imageRepository;
+    private final S3Service s3Service;
+    private final ImageVariantProperties properties;
+    private final ThreadPoolTaskExecutor imageVariantExecutor;
+
+    @Override
+    @Transactional
+    public void enqueue(UUID imageId, String objectKey) {
+        enqueueAll(Map.of(imageId, objectKey));
+    }
+
+    @Override
+    @Transactional
+    public void enqueueAll(Map<UUID, String> objectKeys) {
+        Instant now = Instant.now();
+        jobRepository.saveAll(objectKeys.entrySet().stream()
+                .map(entry -> ImageVariantJobEntity.builder()
+                        .imageId(entry.getKey())
+                        .objectKey(entry.getValue())
+                        .nextAttemptAt(now)
+                        .createdAt(now)
+                        .build())
+                .toList());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    objectKeys.forEach(ImageVariantServiceImpl.this::dispatch);
+                }
+            });
+        } else {
+            objectKeys.forEach(this::dispatch);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${image.variants.poll-interval:PT10S}")
+    public int dispatchDueJobs() {
+        int capacity = remainingCapacity();
+        if (capacity == 0) {
+            return 0;
+        }
+        Instant now = Instant.now();
+        List<ImageVariantJobEntity> jobs = jobRepository.leaseDue(now, now.plus(properties.lease()), capacity);
+        jobs.forEach(job -> submit(job.getImageId(), job.getObjectKey(), job.getAttempts()));
+        return jobs.size();
+    }
+
+    @Override
+    public String variantKey(UUID imageId, int width) {
+        return "variants/" + imageId + "/w" + width + ".jpg";
+    }
+
+    private void dispatch(UUID imageId, String objectKey) {
+        if (remainingCapacity() == 0) {
+            return;
+        }
+        Instant now = Instant.now();
+        if (jobRepository.lease(imageId, now, now.plus(properties.lease())) == 1) {
+            submit(imageId, objectKey, 0);
+        }
+    }
+
+    private void submit(UUID imageId, String objectKey, int attempts) {
+        try {
+            imageVariantExecutor.execute(() -> process(imageId, objectKey, attempts));
+        } catch (TaskRejectedException e) {
+            jobRepository.reschedule(imageId, Instant.now());
+        }
+    }
+
+    private int remainingCapacity() {
+        return imageVariantExecutor.getThreadPoolExecutor().getQueue().remainingCapacity();
+    }
+
+    void process(UUID imageId, String objectKey, int attempts) {
+        try {
+            List<Integer> widths = generateVariants(imageId, objectKey);
+            imageRepository.updateVariantWidths(imageId, widths.toArray(Integer[]::new));
+            jobRepository.deleteById(imageId);
+            log.info("Generated variants {} for image {}", widths, imageId);
+        } catch (Exception e) {
+            int attempt = attempts + 1;
+            Instant nextAttemptAt = attempt >= properties.maxAttempts()
+                    ? null
+                    : Instant.now().plus(properties.retryBackoff().multipliedBy(1L << (attempt - 1)));
+            String error = String.valueOf(e.getMessage());
+            jobRepository.recordFailure(imageId, nextAttemptAt,
+                    error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            if (nextAttemptAt == null) {
+                log.error("Giving up on variants for image {} after {} attempts", imageId, attempt, e);
+            } else {
+                log.warn("Variant generation failed for image {} (attempt {}): {}", imageId, attempt, error);
+            }
+        }
+    }
+
+    private List<Integer> generateVariants(UUID imageId, String objectKey) throws IOException {
+        BufferedImage source;
+        List<Integer> targets;
+        try (InputStream in = s3Service.openStream(objectKey);
+             ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = iis == null ? null : ImageIO.getImageReaders(iis);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Unsupported image format: " + objectKey);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                long maxPixels = properties.maxPixels();
+                targets = properties.widths().stream()
+                        .filter(width -> width < sourceWidth)
+                        .filter(width -> (long) width * scaledHeight(sourceWidth, sourceHeight, width) <= maxPixels)
+                        .sorted()
+                        .toList();
+                if (targets.isEmpty()) {
+                    return List.of();
+                }
+                int bySize = sourceWidth / targets.get(targets.size() - 1);
+                int byPixels = (int) Math.ceil(Math.sqrt((double) sourceWidth * sourceHeight / maxPixels));
+                int subsampling = Math.max(1, Math.max(bySize, byPixels));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                source = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        List<Integer> produced = new ArrayList<>();
+        BufferedImage current = source;
+        for (int i = targets.size() - 1; i >= 0; i--) {
+            int width = targets.get(i);
+            current = scale(current, width);
+            s3Service.upload(encodeJpeg(current), variantKey(imageId, width), VARIANT_CONTENT_TYPE);
+            produced.add(0, width);
+        }
+        return produced;
+    }
+
+    private static int scaledHeight(int sourceWidth, int sourceHeight, int width) {
+        return Math.max(1, Math.round((float) sourceHeight * width / sourceWidth));
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width) {
+        int height = scaledHeight(source.getWidth(), source.getHeight(), width);
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(properties.jpegQuality());
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -1,50 +1,67 @@
 package com.innowise.image.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.innowise.common.dto.event.CommentEventDto;
 import com.innowise.common.dto.event.LikeEventDto;
+import com.innowise.image.entity.OutboxEventEntity;
+import com.innowise.image.repository.OutboxEventRepository;
 import com.innowise.image.service.KafkaProducerService;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.JacksonUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.UUID;
 
+/**
+ * Writes events to the outbox table in the caller's transaction, so an event exists exactly when
+ * the like or comment it describes was committed. {@link OutboxRelayServiceImpl} sends them on to
+ * Kafka; nothing here waits for the broker.
+ */
 @Service
 @RequiredArgsConstructor
-@Slf4j
 public class KafkaProducerServiceImpl implements KafkaProducerService {
 
-    private static final String LIKE_TOPIC = "image-like-events";
-    private static final String COMMENT_TOPIC = "image-comment-events";
+    static final String LIKE_TOPIC = "image-like-events";
+    static final String COMMENT_TOPIC = "image-comment-events";
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    /**
+     * Same mapper configuration as Spring Kafka's {@code JsonSerializer}, so the payloads on the
+     * wire are unchanged from when events were serialized by the producer.
+     */
+    private static final ObjectMapper OBJECT_MAPPER = JacksonUtils.enhancedObjectMapper();
 
+    private final OutboxEventRepository outboxEventRepository;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
     public void sendLikeEvent(UUID userId, UUID imageId, boolean isAdded) {
-        LikeEventDto event = new LikeEventDto(userId, imageId, isAdded);
-
-        kafkaTemplate.send(LIKE_TOPIC, userId.toString(), event)
-                .whenComplete((result, ex) -> {
-                    if (ex == null) {
-                        log.info("Like event sent: {} for user {} on image {}",
-                                isAdded ? "ADDED" : "REMOVED", userId, imageId);
-                    } else {
-                        log.error("Failed to send like event: {}", ex.getMessage(), ex);
-                    }
-                });
+        enqueue(LIKE_TOPIC, userId, new LikeEventDto(userId, imageId, isAdded));
     }
 
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
     public void sendCommentEvent(UUID userId, UUID imageId, UUID commentId, String content, boolean isCreated) {
-        CommentEventDto event = new CommentEventDto(userId, imageId, commentId, isCreated, content);
-
-        kafkaTemplate.send(COMMENT_TOPIC, userId.toString(), event)
-                .whenComplete((result, ex) -> {
-                    if (ex == null) {
-                        log.info("Comment event sent: {} for user {} on image {}",
-                                isCreated ? "CREATED" : "DELETED", userId, imageId);
-                    } else {
-                        log.error("Failed to send comment event: {}", ex.getMessage(), ex);
-                    }
-                });
+        enqueue(COMMENT_TOPIC, userId, new CommentEventDto(userId, imageId, commentId, isCreated, content));
+    }
+
+    private void enqueue(String topic, UUID key, Object event) {
+        String payload;
+        try {
+            payload = OBJECT_MAPPER.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        outboxEventRepository.save(OutboxEventEntity.builder()
+                .topic(topic)
+                .eventKey(key.toString())
+                .eventType(event.getClass().getName())
+                .payload(payload)
+                .createdAt(Instant.now())
+                .build());
     }
 }
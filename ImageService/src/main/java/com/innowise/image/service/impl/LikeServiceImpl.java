@@ -1,15 +1,26 @@
 package com.innowise.image.service.impl;
 
-import com.innowise.image.entity.LikeEntity;
+import com.innowise.image.config.CacheConfig;
+import com.innowise.image.dto.LikeToggleDto;
+import com.innowise.image.exception.BadRequestException;
+import com.innowise.image.repository.ImageRepository;
 import com.innowise.image.repository.LikeRepository;
+import com.innowise.image.repository.LikeToggle;
 import com.innowise.image.service.KafkaProducerService;
 import com.innowise.image.service.LikeService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.PathVariable;
 
-import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -18,27 +29,51 @@ import java.util.UUID;
 public class LikeServiceImpl implements LikeService {
 
     private final LikeRepository likeRepository;
+    private final ImageRepository imageRepository;
     private final KafkaProducerService kafkaProducerService;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final CacheManager cacheManager;
 
+    @Value("${image.likes.max-batch-ids:500}")
+    private int maxBatchIds;
+
+    /**
+     * One round trip: the repository statement flips the like, moves the counter and reports
+     * whether anything changed, so a lost double-click race neither evicts the image nor emits
+     * an event.
+     */
     @Override
-    public void toggleLike(UUID imageId, UUID userId) {
-        LikeEntity existing = likeRepository.findByImageIdAndUserId(imageId, userId).orElse(null);
-        if (existing != null) {
-            likeRepository.delete(existing);
-            kafkaProducerService.sendLikeEvent(userId, imageId, false);
-        } else {
-            LikeEntity like = LikeEntity.builder()
-                    .imageId(imageId)
-                    .userId(userId)
-                    .createdAt(Instant.now())
-                    .build();
-            likeRepository.save(like);
-            kafkaProducerService.sendLikeEvent(userId, imageId, true);
+    public LikeToggleDto toggleLike(UUID imageId, UUID userId) {
+        LikeToggle toggle = likeRepository.toggle(imageId, userId);
+        if (toggle.getChanged()) {
+            Cache images = cacheManager.getCache(CacheConfig.IMAGES_CACHE);
+            if (images != null) {
+                images.evict(imageId);
+            }
+            entityCacheEvictor.evictImage(imageId);
+            kafkaProducerService.sendLikeEvent(userId, imageId, toggle.getLiked());
         }
+        return new LikeToggleDto(toggle.getLiked(), toggle.getLikeCount());
     }
 
     @Override
     public int countLikes(@PathVariable("id") UUID imageId) {
-        return likeRepository.countByImageId(imageId);
+        return imageRepository.findLikeCountById(imageId).orElse(0);
+    }
+
+    /**
+     * Reads the counters for a whole page of images in one query. Every requested id gets an
+     * entry, unknown images count as 0 like the single-image lookup.
+     */
+    @Override
+    public Map<UUID, Integer> countLikes(Collection<UUID> imageIds) {
+        if (imageIds == null || imageIds.isEmpty() || imageIds.size() > maxBatchIds) {
+            throw new BadRequestException("imageIds must contain between 1 and " + maxBatchIds + " ids");
+        }
+        Set<UUID> ids = new LinkedHashSet<>(imageIds);
+        Map<UUID, Integer> counts = new LinkedHashMap<>();
+        ids.forEach(id -> counts.put(id, 0));
+        imageRepository.findLikeCountsByIdIn(ids).forEach(row -> counts.put(row.getId(), row.getLikeCount()));
+        return counts;
     }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.innowise.image.service.impl;
+
+import com.innowise.image.entity.OutboxEventEntity;
+import com.innowise.image.repository.OutboxEventRepository;
+import com.innowise.image.service.OutboxRelayService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the outbox to Kafka. Each batch is locked with SKIP LOCKED, handed to the producer in one
+ * go, and the rows whose sends were acknowledged are deleted with a single statement before the
+ * transaction commits. Rows whose send failed stay locked until then and are picked up again on a
+ * later run, so delivery is at least once. Order is kept per topic and key: once a send for a key
+ * fails, none of that key's later rows in the batch are deleted either, so the next run resends
+ * them after the failed one. A run keeps taking batches while they come back full and stops at
+ * the first partial batch or failed send. Acknowledgements are awaited for at most
+ * {@code image.outbox.send-timeout} per batch, so an unreachable broker holds the row locks and
+ * the scheduler thread only that long; unacknowledged rows are treated as failed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxRelayServiceImpl implements OutboxRelayService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${image.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${image.outbox.send-timeout:PT10S}")
+    private Duration sendTimeout;
+
+    @Override
+    @Scheduled(fixedDelayString = "${image.outbox.linger:PT0.2S}")
+    public int relay() {
+        int relayed = 0;
+        Integer sent;
+        do {
+            sent = transactionTemplate.execute(status -> relayBatch());
+            relayed += sent;
+        } while (sent == batchSize);
+        return relayed;
+    }
+
+    private int relayBatch() {
+        List<OutboxEventEntity> events = outboxEventRepository.lockBatch(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<SendResult<String, String>>> sends = new ArrayList<>(events.size());
+        for (OutboxEventEntity event : events) {
+            try {
+                sends.add(kafkaTemplate.send(toRecord(event)));
+            } catch (RuntimeException e) {
+                log.error("Failed to hand outbox event {} to the producer: {}", event.getId(), e.getMessage());
+                break;
+            }
+        }
+
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        List<Long> sentIds = new ArrayList<>(sends.size());
+        Set<EventKey> failedKeys = new HashSet<>();
+        for (int i = 0; i < sends.size(); i++) {
+            OutboxEventEntity event = events.get(i);
+            EventKey key = new EventKey(event.getTopic(), event.getEventKey());
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (!failedKeys.contains(key)) {
+                    sentIds.add(event.getId());
+                }
+            } catch (ExecutionException e) {
+                failedKeys.add(key);
+                log.error("Failed to relay outbox event {} to {}: {}",
+                        event.getId(), event.getTopic(), e.getCause().getMessage());
+            } catch (TimeoutException e) {
+                failedKeys.add(key);
+                log.error("Timed out relaying outbox event {} to {}", event.getId(), event.getTopic());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!sentIds.isEmpty()) {
+            outboxEventRepository.deleteByIdIn(sentIds.toArray(Long[]::new));
+        }
+        return sentIds.size();
+    }
+
+    private record EventKey(String topic, String key) {}
+
+    private static ProducerRecord<String, String> toRecord(OutboxEventEntity event) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(event.getTopic(), event.getEventKey(), event.getPayload());
+        record.headers().add(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME,
+                event.getEventType().getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
@@ -0,0 +1,55 @@
+package com.innowise.image.service.impl;
+
+import com.innowise.image.config.S3MultipartProperties;
+import com.innowise.image.exception.S3WriteException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed set of part-sized byte arrays shared by all multipart uploads.
+ * Buffers are allocated lazily up to the pool size; once all of them are in use
+ * {@link #acquire()} blocks, which caps the heap held by uploads in progress.
+ */
+@Component
+public class PartBufferPool {
+
+    private final int bufferSize;
+    private final int capacity;
+    private final BlockingQueue<byte[]> free;
+    private final AtomicInteger allocated = new AtomicInteger();
+
+    public PartBufferPool(S3MultipartProperties properties) {
+        this.bufferSize = (int) properties.partSize().toBytes();
+        this.capacity = properties.bufferPoolSize();
+        this.free = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    public byte[] acquire() {
+        byte[] buffer = free.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        if (allocated.getAndUpdate(n -> n < capacity ? n + 1 : n) < capacity) {
+            return new byte[bufferSize];
+        }
+        try {
+            return free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new S3WriteException("Interrupted while waiting for an upload buffer", e);
+        }
+    }
+
+    public void release(byte[] buffer) {
+        if (buffer != null && buffer.length == bufferSize) {
+            free.offer(buffer);
+        }
+    }
+}
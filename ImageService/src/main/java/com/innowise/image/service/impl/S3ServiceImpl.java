@@ -1,26 +1,67 @@
 package com.innowise.image.service.impl;
 
+import com.innowise.image.config.S3MultipartProperties;
 import com.innowise.image.config.S3Properties;
+import com.innowise.image.exception.S3WriteException;
+import com.innowise.image.service.ObjectHead;
 import com.innowise.image.service.S3Service;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.BlockingInputStreamAsyncRequestBody;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.awssdk.services.s3.model.ObjectCannedACL;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class S3ServiceImpl implements S3Service {
 
+    private static final String PART_CONTENT_TYPE = "application/octet-stream";
+
     private final S3Client s3Client;
+    private final S3AsyncClient s3AsyncClient;
+    private final S3Presigner s3Presigner;
     private final S3Properties properties;
+    private final S3MultipartProperties multipartProperties;
+    private final PartBufferPool bufferPool;
+    private final Executor s3IoExecutor;
+    private final DiskObjectCache objectCache;
 
     @Override
     public String upload(byte[] data, String key, String contentType) {
@@ -41,6 +82,235 @@ public class S3ServiceImpl implements S3Service {
         return String.format("https://%s.s3.amazonaws.com/%s", properties.bucket(), key);
     }
 
+    /**
+     * Uploads a stream of unknown length without staging it. Content that fits into a single
+     * part buffer goes out as a plain PUT; anything larger is sent as an S3 multipart upload
+     * with at most {@code s3.multipart.max-parts-in-flight} parts uploading concurrently.
+     * A failed multipart upload is aborted so no orphaned parts are left behind.
+     *
+     * @return number of bytes written
+     */
+    @Override
+    public long uploadStream(InputStream content, String key, String contentType) throws IOException {
+        byte[] first = bufferPool.acquire();
+        int firstLength;
+        try {
+            firstLength = content.readNBytes(first, 0, first.length);
+        } catch (IOException | RuntimeException e) {
+            bufferPool.release(first);
+            throw e;
+        }
+
+        if (firstLength < first.length) {
+            try {
+                s3Client.putObject(PutObjectRequest.builder()
+                                .bucket(properties.bucket())
+                                .key(key)
+                                .contentType(contentType)
+                                .build(),
+                        partBody(first, firstLength, contentType));
+                return firstLength;
+            } finally {
+                bufferPool.release(first);
+            }
+        }
+
+        String uploadId = startMultipart(key, contentType);
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        try {
+            long total = uploadParts(content, key, uploadId, first, firstLength, parts);
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(properties.bucket())
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder()
+                            .parts(parts.stream().map(CompletableFuture::join).toList())
+                            .build())
+                    .build());
+            return total;
+        } catch (IOException | RuntimeException e) {
+            abortMultipartUpload(key, uploadId, parts);
+            if (e instanceof CompletionException ce && ce.getCause() != null) {
+                throw new S3WriteException("Multipart upload failed for " + key, ce.getCause());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Non-blocking PUT of content with a known length. The source stream is drained on
+     * {@code s3IoExecutor} and closed once written; the returned future completes when S3
+     * acknowledges the object, without holding the calling thread for the round trip. If that
+     * executor is saturated the future fails straight away.
+     */
+    @Override
+    public CompletableFuture<Void> uploadAsync(InputStream content, long contentLength, String key, String contentType) {
+        BlockingInputStreamAsyncRequestBody body = AsyncRequestBody.forBlockingInputStream(contentLength);
+        CompletableFuture<Void> put = s3AsyncClient.putObject(PutObjectRequest.builder()
+                                .bucket(properties.bucket())
+                                .key(key)
+                                .contentType(contentType)
+                                .contentLength(contentLength)
+                                .build(),
+                        body)
+                .thenApply(response -> null);
+        try {
+            s3IoExecutor.execute(() -> {
+                try (content) {
+                    body.writeInputStream(content);
+                } catch (IOException | RuntimeException e) {
+                    body.cancel();
+                    put.completeExceptionally(new S3WriteException("Failed to stream " + key + " to S3", e));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            body.cancel();
+            closeQuietly(content);
+            put.completeExceptionally(new S3WriteException("No upload capacity left for " + key, e));
+        }
+        return put;
+    }
+
+    private long uploadParts(InputStream content, String key, String uploadId, byte[] firstBuffer, int firstLength,
+                             List<CompletableFuture<CompletedPart>> parts) throws IOException {
+        Semaphore inFlight = new Semaphore(multipartProperties.maxPartsInFlight());
+        byte[] buffer = firstBuffer;
+        int length = firstLength;
+        long total = 0;
+        try {
+            while (length > 0) {
+                acquire(inFlight);
+                parts.add(uploadPartAsync(key, uploadId, parts.size() + 1, buffer, length, inFlight));
+                buffer = null;
+                total += length;
+                if (length < bufferPool.bufferSize() || parts.stream().anyMatch(CompletableFuture::isCompletedExceptionally)) {
+                    break;
+                }
+                buffer = bufferPool.acquire();
+                length = content.readNBytes(buffer, 0, buffer.length);
+            }
+        } finally {
+            bufferPool.release(buffer);
+        }
+        CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new)).join();
+        return total;
+    }
+
+    private CompletableFuture<CompletedPart> uploadPartAsync(String key, String uploadId, int partNumber,
+                                                             byte[] buffer, int length, Semaphore inFlight) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+                                    .bucket(properties.bucket())
+                                    .key(key)
+                                    .uploadId(uploadId)
+                                    .partNumber(partNumber)
+                                    .contentLength((long) length)
+                                    .build(),
+                            partBody(buffer, length, PART_CONTENT_TYPE)).eTag();
+                    return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+                } finally {
+                    bufferPool.release(buffer);
+                    inFlight.release();
+                }
+            }, s3IoExecutor);
+        } catch (RejectedExecutionException e) {
+            bufferPool.release(buffer);
+            inFlight.release();
+            return CompletableFuture.failedFuture(
+                    new S3WriteException("No upload capacity left for part " + partNumber + " of " + key, e));
+        }
+    }
+
+    private static void closeQuietly(InputStream content) {
+        try {
+            content.close();
+        } catch (IOException e) {
+            log.debug("Failed to close upload stream: {}", e.getMessage());
+        }
+    }
+
+    private void abortMultipartUpload(String key, String uploadId, List<CompletableFuture<CompletedPart>> parts) {
+        parts.forEach(part -> part.exceptionally(ex -> null).join());
+        try {
+            abortMultipart(key, uploadId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to abort multipart upload {} for {}: {}", uploadId, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public String startMultipart(String key, String contentType) {
+        return s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(properties.bucket())
+                .key(key)
+                .contentType(contentType)
+                .build()).uploadId();
+    }
+
+    @Override
+    public String uploadPart(String key, String uploadId, int partNumber, InputStream content, long length) {
+        return s3Client.uploadPart(UploadPartRequest.builder()
+                        .bucket(properties.bucket())
+                        .key(key)
+                        .uploadId(uploadId)
+                        .partNumber(partNumber)
+                        .contentLength(length)
+                        .build(),
+                RequestBody.fromInputStream(content, length)).eTag();
+    }
+
+    @Override
+    public void completeMultipart(String key, String uploadId, List<String> eTags) {
+        List<CompletedPart> parts = new ArrayList<>(eTags.size());
+        for (int i = 0; i < eTags.size(); i++) {
+            parts.add(CompletedPart.builder().partNumber(i + 1).eTag(eTags.get(i)).build());
+        }
+        s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                .bucket(properties.bucket())
+                .key(key)
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                .build());
+    }
+
+    @Override
+    public void abortMultipart(String key, String uploadId) {
+        s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                .bucket(properties.bucket())
+                .key(key)
+                .uploadId(uploadId)
+                .build());
+    }
+
+    private static RequestBody partBody(byte[] buffer, int length, String contentType) {
+        return RequestBody.fromContentProvider(() -> new ByteArrayInputStream(buffer, 0, length), length, contentType);
+    }
+
+    private static void acquire(Semaphore semaphore) {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new S3WriteException("Interrupted while waiting for an upload slot", e);
+        }
+    }
+
+    @Override
+    public String presignPut(String key, String contentType, long contentLength, Duration ttl) {
+        PutObjectPresignRequest req = PutObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .putObjectRequest(PutObjectRequest.builder()
+                        .bucket(properties.bucket())
+                        .key(key)
+                        .contentType(contentType)
+                        .contentLength(contentLength)
+                        .build())
+                .build();
+        return s3Presigner.presignPutObject(req).url().toString();
+    }
+
     @Override
     public void delete(String key) {
         s3Client.deleteObject(DeleteObjectRequest.builder()
@@ -49,23 +319,79 @@ public class S3ServiceImpl implements S3Service {
                 .build());
     }
 
+    @Override
+    public CompletableFuture<Void> deleteAsync(String key) {
+        return s3AsyncClient.deleteObject(DeleteObjectRequest.builder()
+                        .bucket(properties.bucket())
+                        .key(key)
+                        .build())
+                .thenApply(response -> null);
+    }
+
+    @Override
     public boolean exists(String key) {
+        return head(key).isPresent();
+    }
+
+    @Override
+    public Optional<ObjectHead> head(String key) {
         try {
-            s3Client.headObject(HeadObjectRequest.builder()
+            HeadObjectResponse response = s3Client.headObject(HeadObjectRequest.builder()
                     .bucket(properties.bucket())
                     .key(key)
                     .build());
-            return true;
+            return Optional.of(new ObjectHead(response.contentLength(), response.contentType()));
         } catch (S3Exception e) {
-            return false;
+            return Optional.empty();
         }
     }
 
-    public byte[] download(String key) {
-        GetObjectRequest req = GetObjectRequest.builder()
+    @Override
+    public CompletableFuture<Boolean> existsAsync(String key) {
+        return s3AsyncClient.headObject(HeadObjectRequest.builder()
+                        .bucket(properties.bucket())
+                        .key(key)
+                        .build())
+                .handle((response, ex) -> {
+                    if (ex == null) {
+                        return true;
+                    }
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause instanceof S3Exception) {
+                        return false;
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    @Override
+    public InputStream openStream(String key) {
+        return s3Client.getObject(GetObjectRequest.builder()
                 .bucket(properties.bucket())
                 .key(key)
-                .build();
-        return s3Client.getObjectAsBytes(req).asByteArray();
+                .build());
+    }
+
+    @Override
+    public void copy(String sourceKey, String targetKey) {
+        s3Client.copyObject(CopyObjectRequest.builder()
+                .sourceBucket(properties.bucket())
+                .sourceKey(sourceKey)
+                .destinationBucket(properties.bucket())
+                .destinationKey(targetKey)
+                .build());
+    }
+
+    /**
+     * Serves the object through the local {@link DiskObjectCache}, so hot objects are neither
+     * fetched from S3 again nor materialised on the heap.
+     */
+    @Override
+    public long download(String key, WritableByteChannel target) throws IOException {
+        return objectCache.transferTo(key, file -> {
+            try (InputStream content = openStream(key)) {
+                Files.copy(content, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }, target);
     }
-}
\ No newline at end of file
+}
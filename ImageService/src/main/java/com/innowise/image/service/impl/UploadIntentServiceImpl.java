@@ -0,0 +1,139 @@
+package com.innowise.image.service.impl;
+
+import com.innowise.image.dto.UploadIntentDto;
+import com.innowise.image.dto.UploadIntentRequestDto;
+import com.innowise.image.dto.UploadResponseDto;
+import com.innowise.image.entity.UploadIntentEntity;
+import com.innowise.image.exception.BadRequestException;
+import com.innowise.image.exception.ConflictException;
+import com.innowise.image.exception.ForbiddenException;
+import com.innowise.image.exception.NotFoundException;
+import com.innowise.image.repository.UploadIntentRepository;
+import com.innowise.image.service.ImageService;
+import com.innowise.image.service.ObjectHead;
+import com.innowise.image.service.S3Service;
+import com.innowise.image.service.UploadIntentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Direct-to-S3 uploads: the client gets a presigned PUT URL, uploads the bytes itself and then
+ * commits the intent, at which point the object is checked with a HEAD and the image row is written.
+ * The declared size is signed into the URL, and on commit the stored object must still match the
+ * intent's size and content type; an object that does not is deleted and the commit rejected.
+ * Intents that are never committed are removed, together with any object, by {@link #sweepExpired()}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UploadIntentServiceImpl implements UploadIntentService {
+
+    private final UploadIntentRepository uploadIntentRepository;
+    private final ImageService imageService;
+    private final S3Service s3Service;
+
+    @Value("${image.upload.intent.ttl:PT15M}")
+    private Duration intentTtl;
+
+    @Value("${image.upload.intent.sweep-grace:PT10M}")
+    private Duration sweepGrace;
+
+    @Value("${image.upload.intent.max-file-size:512MB}")
+    private DataSize maxFileSize;
+
+    @Override
+    public UploadIntentDto createIntent(UUID userId, UploadIntentRequestDto request) {
+        if (request.getFilename() == null || request.getFilename().isBlank()) {
+            throw new BadRequestException("filename is required");
+        }
+        if (request.getContentType() == null || !request.getContentType().startsWith("image/")) {
+            throw new BadRequestException("contentType must be an image type");
+        }
+        if (request.getSize() == null || request.getSize() <= 0 || request.getSize() > maxFileSize.toBytes()) {
+            throw new BadRequestException("size must be between 1 and " + maxFileSize.toBytes() + " bytes");
+        }
+
+        Instant now = Instant.now();
+        String key = UUID.randomUUID() + "-" + request.getFilename();
+        UploadIntentEntity intent = UploadIntentEntity.builder()
+                .userId(userId)
+                .objectKey(key)
+                .contentType(request.getContentType())
+                .totalSize(request.getSize())
+                .description(request.getDescription())
+                .createdAt(now)
+                .expiresAt(now.plus(intentTtl))
+                .build();
+        uploadIntentRepository.save(intent);
+
+        return UploadIntentDto.builder()
+                .id(intent.getId())
+                .key(key)
+                .uploadUrl(s3Service.presignPut(key, intent.getContentType(), intent.getTotalSize(), intentTtl))
+                .contentType(intent.getContentType())
+                .expiresAt(intent.getExpiresAt())
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public UploadResponseDto commit(UUID intentId, UUID userId) {
+        UploadIntentEntity intent = uploadIntentRepository.findById(intentId)
+                .orElseThrow(() -> new NotFoundException("Upload intent not found with id: " + intentId));
+        if (!intent.getUserId().equals(userId)) {
+            throw new ForbiddenException("Access denied");
+        }
+        if (intent.getExpiresAt().isBefore(Instant.now())) {
+            throw new ConflictException("Upload intent has expired");
+        }
+        ObjectHead head = s3Service.head(intent.getObjectKey())
+                .orElseThrow(() -> new ConflictException("Object has not been uploaded yet"));
+        if (!matches(intent, head)) {
+            s3Service.delete(intent.getObjectKey());
+            throw new BadRequestException("Uploaded object does not match the upload intent");
+        }
+        if (uploadIntentRepository.deleteByIdReturningCount(intentId) == 0) {
+            throw new ConflictException("Upload intent has already been committed");
+        }
+        return imageService.registerImage(intent.getObjectKey(), userId, intent.getDescription());
+    }
+
+    private boolean matches(UploadIntentEntity intent, ObjectHead head) {
+        if (intent.getTotalSize() != null && head.contentLength() != intent.getTotalSize()) {
+            return false;
+        }
+        return head.contentLength() <= maxFileSize.toBytes()
+                && head.contentType() != null
+                && head.contentType().startsWith("image/")
+                && head.contentType().equals(intent.getContentType());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${image.upload.intent.sweep-interval:PT5M}")
+    public int sweepExpired() {
+        List<UploadIntentEntity> expired =
+                uploadIntentRepository.findTop100ByExpiresAtBeforeOrderByExpiresAt(Instant.now().minus(sweepGrace));
+        for (UploadIntentEntity intent : expired) {
+            try {
+                s3Service.delete(intent.getObjectKey());
+                uploadIntentRepository.deleteById(intent.getId());
+            } catch (RuntimeException e) {
+                log.warn("Failed to sweep upload intent {}: {}", intent.getId(), e.getMessage());
+            }
+        }
+        if (!expired.isEmpty()) {
+            log.info("Swept {} expired upload intents", expired.size());
+        }
+        return expired.size();
+    }
+}
@@ -0,0 +1,189 @@
+package com.innowise.image.service.impl;
+
+import com.innowise.image.dto.UploadResponseDto;
+import com.innowise.image.dto.UploadSessionDto;
+import com.innowise.image.dto.UploadSessionRequestDto;
+import com.innowise.image.entity.UploadSessionEntity;
+import com.innowise.image.exception.BadRequestException;
+import com.innowise.image.exception.ConflictException;
+import com.innowise.image.exception.ForbiddenException;
+import com.innowise.image.exception.NotFoundException;
+import com.innowise.image.repository.UploadSessionRepository;
+import com.innowise.image.service.ImageService;
+import com.innowise.image.service.S3Service;
+import com.innowise.image.service.UploadSessionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Resumable uploads. A session owns one S3 multipart upload; every chunk is a fixed-size part
+ * (only the last one may be shorter), so chunk {@code n} always lands in part {@code n + 1} and a
+ * dropped connection costs at most the chunk that was in flight. The session row holds the
+ * confirmed offset and the part ETags; a chunk counts only once its part is in S3 and the offset
+ * update has matched, so a retried chunk simply overwrites the same part.
+ * Sessions that are never completed are aborted by {@link #sweepExpired()}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UploadSessionServiceImpl implements UploadSessionService {
+
+    private static final DataSize MIN_CHUNK_SIZE = DataSize.ofMegabytes(5);
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final ImageService imageService;
+    private final S3Service s3Service;
+
+    @Value("${image.upload.resumable.chunk-size:8MB}")
+    private DataSize chunkSize;
+
+    @Value("${image.upload.resumable.max-file-size:2GB}")
+    private DataSize maxFileSize;
+
+    @Value("${image.upload.resumable.ttl:PT24H}")
+    private Duration sessionTtl;
+
+    @Override
+    public UploadSessionDto createSession(UUID userId, UploadSessionRequestDto request) {
+        if (request.getFilename() == null || request.getFilename().isBlank()) {
+            throw new BadRequestException("filename is required");
+        }
+        if (request.getContentType() == null || !request.getContentType().startsWith("image/")) {
+            throw new BadRequestException("contentType must be an image type");
+        }
+        if (request.getSize() == null || request.getSize() <= 0 || request.getSize() > maxFileSize.toBytes()) {
+            throw new BadRequestException("size must be between 1 and " + maxFileSize.toBytes() + " bytes");
+        }
+
+        Instant now = Instant.now();
+        String key = UUID.randomUUID() + "-" + request.getFilename();
+        UploadSessionEntity session = UploadSessionEntity.builder()
+                .userId(userId)
+                .objectKey(key)
+                .s3UploadId(s3Service.startMultipart(key, request.getContentType()))
+                .contentType(request.getContentType())
+                .description(request.getDescription())
+                .totalSize(request.getSize())
+                .chunkSize(Math.max(chunkSize.toBytes(), MIN_CHUNK_SIZE.toBytes()))
+                .receivedBytes(0)
+                .partEtags(new String[0])
+                .createdAt(now)
+                .expiresAt(now.plus(sessionTtl))
+                .build();
+        uploadSessionRepository.save(session);
+        return toDto(session);
+    }
+
+    @Override
+    public UploadSessionDto getSession(UUID sessionId, UUID userId) {
+        return toDto(findOwned(sessionId, userId));
+    }
+
+    @Override
+    public long appendChunk(UUID sessionId, UUID userId, long offset, InputStream content, long length) {
+        UploadSessionEntity session = findOwned(sessionId, userId);
+        if (session.getExpiresAt().isBefore(Instant.now())) {
+            throw new ConflictException("Upload session has expired");
+        }
+        if (offset != session.getReceivedBytes()) {
+            throw new ConflictException("Upload-Offset " + offset + " does not match current offset "
+                    + session.getReceivedBytes());
+        }
+        long expected = Math.min(session.getChunkSize(), session.getTotalSize() - offset);
+        if (expected == 0) {
+            throw new ConflictException("Upload is already complete");
+        }
+        if (length != expected) {
+            throw new BadRequestException("Chunk at offset " + offset + " must be exactly " + expected + " bytes");
+        }
+
+        int partNumber = (int) (offset / session.getChunkSize()) + 1;
+        String eTag = s3Service.uploadPart(session.getObjectKey(), session.getS3UploadId(), partNumber, content, length);
+        if (uploadSessionRepository.appendPart(sessionId, offset, length, eTag, Instant.now().plus(sessionTtl)) == 0) {
+            throw new ConflictException("Chunk at offset " + offset + " was already received");
+        }
+        return offset + length;
+    }
+
+    /**
+     * The database writes come first and the S3 multipart upload is completed last, so a failure
+     * anywhere rolls the session back with its upload id still usable and the client can retry.
+     * Should the transaction fail to commit after S3 has completed the upload, the retry finds
+     * the object already assembled and carries on.
+     */
+    @Override
+    @Transactional
+    public UploadResponseDto complete(UUID sessionId, UUID userId) {
+        UploadSessionEntity session = findOwned(sessionId, userId);
+        if (session.getReceivedBytes() != session.getTotalSize()) {
+            throw new ConflictException("Upload is incomplete: received " + session.getReceivedBytes()
+                    + " of " + session.getTotalSize() + " bytes");
+        }
+        if (uploadSessionRepository.deleteByIdReturningCount(sessionId) == 0) {
+            throw new ConflictException("Upload session has already been completed");
+        }
+        UploadResponseDto response = imageService.registerImage(session.getObjectKey(), userId, session.getDescription());
+        completeMultipart(session);
+        return response;
+    }
+
+    private void completeMultipart(UploadSessionEntity session) {
+        try {
+            s3Service.completeMultipart(session.getObjectKey(), session.getS3UploadId(), Arrays.asList(session.getPartEtags()));
+        } catch (RuntimeException e) {
+            if (!s3Service.exists(session.getObjectKey())) {
+                throw e;
+            }
+            log.info("Multipart upload {} for {} was already completed", session.getS3UploadId(), session.getObjectKey());
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${image.upload.resumable.sweep-interval:PT1H}")
+    public int sweepExpired() {
+        List<UploadSessionEntity> expired = uploadSessionRepository.findTop100ByExpiresAtBeforeOrderByExpiresAt(Instant.now());
+        for (UploadSessionEntity session : expired) {
+            try {
+                s3Service.abortMultipart(session.getObjectKey(), session.getS3UploadId());
+                uploadSessionRepository.deleteById(session.getId());
+            } catch (RuntimeException e) {
+                log.warn("Failed to sweep upload session {}: {}", session.getId(), e.getMessage());
+            }
+        }
+        if (!expired.isEmpty()) {
+            log.info("Swept {} expired upload sessions", expired.size());
+        }
+        return expired.size();
+    }
+
+    private UploadSessionEntity findOwned(UUID sessionId, UUID userId) {
+        UploadSessionEntity session = uploadSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new NotFoundException("Upload session not found with id: " + sessionId));
+        if (!session.getUserId().equals(userId)) {
+            throw new ForbiddenException("Access denied");
+        }
+        return session;
+    }
+
+    private static UploadSessionDto toDto(UploadSessionEntity session) {
+        return UploadSessionDto.builder()
+                .id(session.getId())
+                .offset(session.getReceivedBytes())
+                .size(session.getTotalSize())
+                .chunkSize(session.getChunkSize())
+                .expiresAt(session.getExpiresAt())
+                .build();
+    }
+}
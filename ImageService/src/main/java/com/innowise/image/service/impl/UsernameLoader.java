@@ -0,0 +1,103 @@
+package com.innowise.image.service.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.innowise.image.client.AuthServiceClient;
+import com.innowise.image.config.UsernameLookupProperties;
+import com.innowise.image.dto.UserLookupRequestDto;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Resolves author names through the auth service's bulk lookup, one round trip per batch of
+ * distinct user ids rather than one call per row. Results are held for a short TTL; a lookup
+ * already in flight is shared by every caller asking for the same id, so concurrent listings by
+ * the same author cost one remote call. Batches run in {@code authServiceBulkhead}, which caps
+ * how many are outstanding at once. When a lookup fails, times out or is turned away by the
+ * bulkhead, only names already cached are returned; failures are not cached.
+ */
+@Slf4j
+@Component
+public class UsernameLoader {
+
+    private final AuthServiceClient authServiceClient;
+    private final ThreadPoolBulkhead authServiceBulkhead;
+    private final int batchSize;
+    private final AsyncCache<UUID, String> usernames;
+
+    public UsernameLoader(AuthServiceClient authServiceClient,
+                          ThreadPoolBulkhead authServiceBulkhead,
+                          UsernameLookupProperties properties) {
+        this.authServiceClient = authServiceClient;
+        this.authServiceBulkhead = authServiceBulkhead;
+        this.batchSize = properties.batchSize();
+        this.usernames = Caffeine.newBuilder()
+                .maximumSize(properties.maxSize())
+                .expireAfterWrite(properties.ttl())
+                .buildAsync();
+    }
+
+    public String getUsername(UUID userId) {
+        return getUsernames(List.of(userId)).get(userId);
+    }
+
+    public void evict(UUID userId) {
+        usernames.synchronous().invalidate(userId);
+    }
+
+    /**
+     * @return names by user id; ids without a known name are absent
+     */
+    public Map<UUID, String> getUsernames(Collection<UUID> userIds) {
+        Set<UUID> distinct = new LinkedHashSet<>(userIds);
+        try {
+            return usernames.getAll(distinct, (missing, executor) -> fetch(missing)).join();
+        } catch (CompletionException e) {
+            log.warn("Username lookup for {} users failed, using cached names only: {}", distinct.size(), e.getCause().toString());
+            return usernames.synchronous().getAllPresent(distinct);
+        }
+    }
+
+    private CompletableFuture<Map<UUID, String>> fetch(Set<? extends UUID> userIds) {
+        List<CompletableFuture<Map<UUID, String>>> batches = new ArrayList<>();
+        List<UUID> batch = new ArrayList<>(Math.min(batchSize, userIds.size()));
+        for (UUID userId : userIds) {
+            batch.add(userId);
+            if (batch.size() == batchSize) {
+                batches.add(fetchBatch(batch));
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(fetchBatch(batch));
+        }
+        return CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new))
+                .thenApply(done -> {
+                    Map<UUID, String> names = new HashMap<>(userIds.size());
+                    batches.forEach(fetched -> names.putAll(fetched.join()));
+                    return names;
+                });
+    }
+
+    private CompletableFuture<Map<UUID, String>> fetchBatch(List<UUID> userIds) {
+        try {
+            return authServiceBulkhead.executeSupplier(
+                    () -> authServiceClient.lookupUsernames(new UserLookupRequestDto(userIds))).toCompletableFuture();
+        } catch (BulkheadFullException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.innowise.image.benchmark;
+
+import com.innowise.image.dto.CommentDto;
+import com.innowise.image.dto.ImageDto;
+import com.innowise.image.entity.CommentEntity;
+import com.innowise.image.entity.ImageEntity;
+import com.innowise.image.mapper.CommentMapper;
+import com.innowise.image.mapper.CommentMapperImpl;
+import com.innowise.image.mapper.ImageMapper;
+import com.innowise.image.mapper.ImageMapperImpl;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the reflection-based ModelMapper set up as the old {@code AppConfig.modelMapper()}
+ * bean against the generated mappers, on the entities the list endpoints map per row. Not run by
+ * the test suite; start {@link #main} from the IDE, or after {@code mvn test-compile} with
+ * {@code java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main DtoMappingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    private ModelMapper modelMapper;
+    private ImageMapper imageMapper;
+    private CommentMapper commentMapper;
+    private ImageEntity image;
+    private CommentEntity comment;
+
+    @Setup
+    public void setup() {
+        modelMapper = new ModelMapper();
+        imageMapper = new ImageMapperImpl();
+        commentMapper = new CommentMapperImpl();
+        image = ImageEntity.builder()
+                .id(UUID.randomUUID())
+                .url("http://localhost:4566/images/key.jpg")
+                .description("description")
+                .uploadedAt(Instant.now())
+                .userId(UUID.randomUUID())
+                .width(1920)
+                .height(1080)
+                .mimeType("image/jpeg")
+                .sizeBytes(512_000L)
+                .orientation((short) 1)
+                .likeCount(12)
+                .commentCount(3)
+                .variantWidths(new Integer[]{256, 768, 1600})
+                .build();
+        comment = CommentEntity.builder()
+                .id(UUID.randomUUID())
+                .imageId(image.getId())
+                .userId(UUID.randomUUID())
+                .content("comment")
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    @Benchmark
+    public ImageDto imageModelMapper() {
+        return modelMapper.map(image, ImageDto.class);
+    }
+
+    @Benchmark
+    public ImageDto imageGeneratedMapper() {
+        return imageMapper.toDto(image);
+    }
+
+    @Benchmark
+    public CommentDto commentModelMapper() {
+        return modelMapper.map(comment, CommentDto.class);
+    }
+
+    @Benchmark
+    public CommentDto commentGeneratedMapper() {
+        return commentMapper.toDto(comment);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DtoMappingBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,100 @@
+package com.innowise.image.config;
+
+import com.innowise.image.dto.ImageDto;
+import com.innowise.image.entity.ImageEntity;
+import com.innowise.image.mapper.ImageMapperImpl;
+import com.innowise.image.repository.ImageRepository;
+import com.innowise.image.service.BlobService;
+import com.innowise.image.service.ImageService;
+import com.innowise.image.service.ImageVariantService;
+import com.innowise.image.service.S3Service;
+import com.innowise.image.service.impl.ImageMetadataReader;
+import com.innowise.image.service.impl.ImageServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig
+class CacheConfigTest {
+
+    @Configuration
+    @Import(CacheConfig.class)
+    static class TestConfig {
+
+        @Bean
+        static ConversionService conversionService() {
+            return ApplicationConversionService.getSharedInstance();
+        }
+
+        @Bean
+        ImageRepository imageRepository() {
+            return mock(ImageRepository.class);
+        }
+
+        @Bean
+        ImageService imageService(ImageRepository imageRepository) {
+            return new ImageServiceImpl(imageRepository, new ImageMapperImpl(), mock(S3Service.class),
+                    mock(ImageVariantService.class), mock(BlobService.class), new ImageMetadataReader(),
+                    mock(TransactionTemplate.class));
+        }
+    }
+
+    @Autowired
+    private ImageService imageService;
+    @Autowired
+    private ImageRepository imageRepository;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private UUID imageId;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.IMAGES_CACHE).clear();
+        clearInvocations(imageRepository);
+        imageId = UUID.randomUUID();
+        when(imageRepository.findById(imageId)).thenReturn(Optional.of(ImageEntity.builder()
+                .id(imageId)
+                .url("http://localhost/image")
+                .uploadedAt(Instant.now())
+                .likeCount(1)
+                .build()));
+    }
+
+    @Test
+    void getImage_repeatedReads_hitDatabaseOnce() {
+        imageService.getImage(imageId);
+        ImageDto cached = imageService.getImage(imageId);
+
+        assertEquals(imageId, cached.getId());
+        verify(imageRepository, times(1)).findById(imageId);
+    }
+
+    @Test
+    void counterUpdate_evictsCachedImage() {
+        imageService.getImage(imageId);
+        imageRepository.adjustCommentCount(imageId, 1);
+        imageService.getImage(imageId);
+
+        verify(imageRepository, times(2)).findById(imageId);
+    }
+}
@@ -2,9 +2,17 @@ package com.innowise.image.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.innowise.common.security.JwtUtil;
+import com.innowise.image.dto.BatchUploadResponseDto;
+import com.innowise.image.dto.BatchUploadResultDto;
 import com.innowise.image.dto.CommentDto;
 import com.innowise.image.dto.ImageDto;
+import com.innowise.image.dto.LikeToggleDto;
+import com.innowise.image.dto.LikesCountsRequestDto;
+import com.innowise.image.dto.PageResponseDto;
+import com.innowise.image.dto.UploadIntentDto;
+import com.innowise.image.dto.UploadIntentRequestDto;
 import com.innowise.image.dto.UploadResponseDto;
+import com.innowise.image.dto.UploadSessionDto;
 import com.innowise.image.exception.ConflictException;
 import com.innowise.image.exception.ForbiddenException;
 import com.innowise.image.exception.GlobalExceptionHandler;
@@ -12,6 +20,8 @@ import com.innowise.image.exception.NotFoundException;
 import com.innowise.image.service.CommentService;
 import com.innowise.image.service.ImageService;
 import com.innowise.image.service.LikeService;
+import com.innowise.image.service.UploadIntentService;
+import com.innowise.image.service.UploadSessionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -24,23 +34,34 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class ImageControllerTest {
@@ -50,6 +71,8 @@ class ImageControllerTest {
     private LikeService likeService;
     private ImageService imageService;
     private CommentService commentService;
+    private UploadIntentService uploadIntentService;
+    private UploadSessionService uploadSessionService;
     private ObjectMapper objectMapper;
     private UUID userId;
     private String authHeader;
@@ -60,9 +83,11 @@ class ImageControllerTest {
         likeService = Mockito.mock(LikeService.class);
         imageService = Mockito.mock(ImageService.class);
         commentService = Mockito.mock(CommentService.class);
+        uploadIntentService = Mockito.mock(UploadIntentService.class);
+        uploadSessionService = Mockito.mock(UploadSessionService.class);
         objectMapper = new ObjectMapper();
 
-        ImageController imageController = new ImageController(jwtUtil, likeService, imageService, commentService);
+        ImageController imageController = new ImageController(jwtUtil, likeService, imageService, commentService, uploadIntentService, uploadSessionService);
 
         mockMvc = MockMvcBuilders.standaloneSetup(imageController)
                 .setControllerAdvice(new GlobalExceptionHandler())
@@ -84,12 +109,16 @@ class ImageControllerTest {
         response.setId(UUID.randomUUID());
         response.setUrl("http://localhost/images/" + response.getId());
 
-        when(imageService.uploadImage(any(), eq(userId), any())).thenReturn(response);
+        when(imageService.uploadImage(any(), eq(userId), any())).thenReturn(CompletableFuture.completedFuture(response));
 
-        mockMvc.perform(multipart("/api/images")
+        MvcResult result = mockMvc.perform(multipart("/api/images")
                         .file(file)
                         .param("description", "test image")
                         .header(HttpHeaders.AUTHORIZATION, authHeader))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id").value(response.getId().toString()))
                 .andExpect(jsonPath("$.url").value(response.getUrl()));
@@ -111,11 +140,15 @@ class ImageControllerTest {
         MockMultipartFile file = new MockMultipartFile("file", "test.jpg",
                 MediaType.IMAGE_JPEG_VALUE, "dummy-content".getBytes());
         when(imageService.uploadImage(any(), any(), any()))
-                .thenThrow(new RuntimeException("Internal server error"));
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Internal server error")));
 
-        mockMvc.perform(multipart("/api/images")
+        MvcResult result = mockMvc.perform(multipart("/api/images")
                         .file(file)
                         .header(HttpHeaders.AUTHORIZATION, authHeader))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().is5xxServerError());
     }
 
@@ -134,6 +167,169 @@ class ImageControllerTest {
                 .andExpect(jsonPath("$.message").value("Image already exists"));
     }
 
+    @Test
+    void uploadImages_partialFailure_returnsMultiStatus() throws Exception {
+        MockMultipartFile first = new MockMultipartFile("file", "a.jpg", MediaType.IMAGE_JPEG_VALUE, "a".getBytes());
+        MockMultipartFile second = new MockMultipartFile("file", "b.jpg", MediaType.IMAGE_JPEG_VALUE, "b".getBytes());
+        BatchUploadResponseDto response = BatchUploadResponseDto.builder()
+                .succeeded(1)
+                .failed(1)
+                .results(List.of(
+                        BatchUploadResultDto.builder().fileName("a.jpg").id(UUID.randomUUID()).build(),
+                        BatchUploadResultDto.builder().fileName("b.jpg").error("S3 error").build()))
+                .build();
+        when(imageService.uploadImages(any(), eq(userId), any())).thenReturn(CompletableFuture.completedFuture(response));
+
+        MvcResult result = mockMvc.perform(multipart("/api/images/batch")
+                        .file(first)
+                        .file(second)
+                        .header(HttpHeaders.AUTHORIZATION, authHeader))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[1].error").value("S3 error"));
+    }
+
+    @Test
+    void uploadImages_allSucceeded_returnsCreated() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "a.jpg", MediaType.IMAGE_JPEG_VALUE, "a".getBytes());
+        BatchUploadResponseDto response = BatchUploadResponseDto.builder()
+                .succeeded(1)
+                .results(List.of(BatchUploadResultDto.builder().fileName("a.jpg").id(UUID.randomUUID()).build()))
+                .build();
+        when(imageService.uploadImages(any(), eq(userId), any())).thenReturn(CompletableFuture.completedFuture(response));
+
+        MvcResult result = mockMvc.perform(multipart("/api/images/batch")
+                        .file(file)
+                        .header(HttpHeaders.AUTHORIZATION, authHeader))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.succeeded").value(1));
+    }
+
+    @Test
+    void createUploadSession_returnsLocationAndOffset() throws Exception {
+        UUID sessionId = UUID.randomUUID();
+        when(uploadSessionService.createSession(eq(userId), any())).thenReturn(UploadSessionDto.builder()
+                .id(sessionId).offset(0).size(100).chunkSize(50).build());
+
+        mockMvc.perform(post("/api/images/uploads")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filename\":\"a.png\",\"contentType\":\"image/png\",\"size\":100}")
+                        .header(HttpHeaders.AUTHORIZATION, authHeader))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/images/uploads/" + sessionId))
+                .andExpect(header().string("Upload-Offset", "0"))
+                .andExpect(jsonPath("$.chunkSize").value(50));
+    }
+
+    @Test
+    void getUploadOffset_returnsHeaders() throws Exception {
+        UUID sessionId = UUID.randomUUID();
+        when(uploadSessionService.getSession(sessionId, userId)).thenReturn(UploadSessionDto.builder()
+                .id(sessionId).offset(50).size(100).chunkSize(50).build());
+
+        mockMvc.perform(head("/api/images/uploads/" + sessionId)
+                        .header(HttpHeaders.AUTHORIZATION, authHeader))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Upload-Offset", "50"))
+                .andExpect(header().string("Upload-Length", "100"));
+    }
+
+    @Test
+    void appendUploadChunk_returnsNewOffset() throws Exception {
+        UUID sessionId = UUID.randomUUID();
+        when(uploadSessionService.appendChunk(eq(sessionId), eq(userId), eq(50L), any(), eq(4L))).thenReturn(54L);
+
+        mockMvc.perform(patch("/api/images/uploads/" + sessionId)
+                        .contentType("application/offset+octet-stream")
+                        .content("abcd".getBytes())
+                        .header("Upload-Offset", "50")
+                        .header(HttpHeaders.AUTHORIZATION, authHeader))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("Upload-Offset", "54"));
+    }
+
+    @Test
+    void appendUploadChunk_offsetMismatch_returns409() throws Exception {
+        UUID sessionId = UUID.randomUUID();
+        when(uploadSessionService.appendChunk(eq(sessionId), eq(userId), eq(0L), any(), eq(4L)))
+                .thenThrow(new ConflictException("Upload-Offset 0 does not match current offset 50"));
+
+        mockMvc.perform(patch("/api/images/uploads/" + sessionId)
+                        .contentType("application/offset+octet-stream")
+                        .content("abcd".getBytes())
+                        .header("Upload-Offset", "0")
+                        .header(HttpHeaders.AUTHORIZATION, authHeader))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void completeUploadSession_returnsCreated() throws Exception {
+        UUID sessionId = UUID.randomUUID();
+        UploadResponseDto response = new UploadResponseDto(UUID.randomUUID(), "http://localhost/images/a.png");
+        when(uploadSessionService.complete(sessionId, userId)).thenReturn(response);
+
+        mockMvc.perform(post("/api/images/uploads/" + sessionId + "/complete")
+                        .header(HttpHeaders.AUTHORIZATION, authHeader))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/images/" + response.getId()));
+    }
+
+    @Test
+    void uploadImageStream_success() throws Exception {
+        UploadResponseDto response = new UploadResponseDto();
+        response.setId(UUID.randomUUID());
+        response.setUrl("http://localhost/images/" + response.getId());
+
+        when(imageService.uploadImageStream(any(), eq(userId))).thenReturn(response);
+
+        mockMvc.perform(post("/api/images/stream")
+                        .contentType("multipart/form-data; boundary=b")
+                        .content("--b--\r\n")
+                        .header(HttpHeaders.AUTHORIZATION, authHeader))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(response.getId().toString()));
+    }
+
+    @Test
+    void createUploadIntent_success() throws Exception {
+        UploadIntentRequestDto request = new UploadIntentRequestDto("photo.jpg", "image/jpeg", 1024L, "desc");
+        UploadIntentDto intent = UploadIntentDto.builder()
+                .id(UUID.randomUUID())
+                .key("key-photo.jpg")
+                .uploadUrl("http://localhost:4566/images/key-photo.jpg?X-Amz-Signature=abc")
+                .build();
+
+        when(uploadIntentService.createIntent(eq(userId), any(UploadIntentRequestDto.class))).thenReturn(intent);
+
+        mockMvc.perform(post("/api/images/upload-intents")
+                        .header(HttpHeaders.AUTHORIZATION, authHeader)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(intent.getId().toString()))
+                .andExpect(jsonPath("$.uploadUrl").value(intent.getUploadUrl()));
+    }
+
+    @Test
+    void commitUploadIntent_notUploaded_shouldReturn409() throws Exception {
+        UUID intentId = UUID.randomUUID();
+        when(uploadIntentService.commit(intentId, userId))
+                .thenThrow(new ConflictException("Object has not been uploaded yet"));
+
+        mockMvc.perform(post("/api/images/{intentId}/commit", intentId)
+                        .header(HttpHeaders.AUTHORIZATION, authHeader))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Object has not been uploaded yet"));
+    }
+
     @Test
     void getImage_success() throws Exception {
         UUID imageId = UUID.randomUUID();
@@ -154,6 +350,38 @@ class ImageControllerTest {
                 .andExpect(jsonPath("$.description").value("desc"));
     }
 
+    @Test
+    void getImage_setsVersionETag() throws Exception {
+        UUID imageId = UUID.randomUUID();
+        ImageDto dto = new ImageDto();
+        dto.setId(imageId);
+        dto.setVersion(7);
+        when(imageService.getImageVersionTag(imageId)).thenReturn("7");
+        when(imageService.getImage(imageId)).thenReturn(dto);
+
+        mockMvc.perform(get("/api/images/{id}", imageId)
+                        .header(HttpHeaders.AUTHORIZATION, authHeader)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"6\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$.version").value(7));
+    }
+
+    @Test
+    void getImage_matchingETag_returns304WithoutLoading() throws Exception {
+        UUID imageId = UUID.randomUUID();
+        when(imageService.getImageVersionTag(imageId)).thenReturn("7");
+
+        mockMvc.perform(get("/api/images/{id}", imageId)
+                        .header(HttpHeaders.AUTHORIZATION, authHeader)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""));
+
+        verify(imageService, never()).getImage(any(UUID.class));
+    }
+
     @Test
     void getImage_notFound_shouldReturn404() throws Exception {
         UUID imageId = UUID.randomUUID();
@@ -234,6 +462,42 @@ class ImageControllerTest {
                 .andExpect(jsonPath("$.content[0].url").value("http://img.local/test2"));
     }
 
+    @Test
+    void getAllImages_withCursor_usesKeysetFeed() throws Exception {
+        ImageDto dto = new ImageDto();
+        dto.setId(UUID.randomUUID());
+        PageResponseDto<ImageDto> feed = PageResponseDto.<ImageDto>builder()
+                .content(List.of(dto))
+                .size(10)
+                .nextCursor("next-token")
+                .build();
+        when(imageService.getImageFeed("abc", 10)).thenReturn(feed);
+
+        mockMvc.perform(get("/api/images")
+                        .param("cursor", "abc")
+                        .param("size", "10")
+                        .header(HttpHeaders.AUTHORIZATION, authHeader))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(dto.getId().toString()))
+                .andExpect(jsonPath("$.nextCursor").value("next-token"))
+                .andExpect(jsonPath("$.totalElements").isEmpty());
+
+        verify(imageService, never()).getAllImages(any(Pageable.class));
+    }
+
+    @Test
+    void getAllImages_withCursor_matchingETag_returns304WithoutLoading() throws Exception {
+        when(imageService.getImagesVersionTag(eq("abc"), any(Pageable.class))).thenReturn("feed-tag");
+
+        mockMvc.perform(get("/api/images")
+                        .param("cursor", "abc")
+                        .header(HttpHeaders.AUTHORIZATION, authHeader)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"feed-tag\""))
+                .andExpect(status().isNotModified());
+
+        verify(imageService, never()).getImageFeed(anyString(), anyInt());
+    }
+
     @Test
     void getAllImages_internalError() throws Exception {
         when(imageService.getAllImages(any(Pageable.class)))
@@ -252,9 +516,14 @@ class ImageControllerTest {
 
     @Test
     void toggleLike_success() throws Exception {
-        mockMvc.perform(post("/api/images/{id}/likes", UUID.randomUUID())
+        UUID imageId = UUID.randomUUID();
+        when(likeService.toggleLike(imageId, userId)).thenReturn(new LikeToggleDto(true, 5));
+
+        mockMvc.perform(post("/api/images/{id}/likes", imageId)
                         .header(HttpHeaders.AUTHORIZATION, authHeader))
-                .andExpect(status().isNoContent());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.liked").value(true))
+                .andExpect(jsonPath("$.likesCount").value(5));
     }
 
     @Test
@@ -275,6 +544,34 @@ class ImageControllerTest {
                 .andExpect(jsonPath("$.likesCount").value(5));
     }
 
+    @Test
+    void countLikes_batch_success() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(likeService.countLikes(List.of(first, second))).thenReturn(Map.of(first, 2, second, 0));
+
+        mockMvc.perform(post("/api/images/likes/counts")
+                        .header(HttpHeaders.AUTHORIZATION, authHeader)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LikesCountsRequestDto(List.of(first, second)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.counts['" + first + "']").value(2))
+                .andExpect(jsonPath("$.counts['" + second + "']").value(0));
+    }
+
+    @Test
+    void listComments_matchingETag_returns304WithoutLoading() throws Exception {
+        UUID imageId = UUID.randomUUID();
+        when(imageService.getImageVersionTag(imageId)).thenReturn("3");
+
+        mockMvc.perform(get("/api/images/{id}/comments", imageId)
+                        .header(HttpHeaders.AUTHORIZATION, authHeader)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified());
+
+        verify(commentService, never()).listComments(any(UUID.class), any(), any());
+    }
+
     @Test
     void addComment_success() throws Exception {
         UUID imageId = UUID.randomUUID();
@@ -0,0 +1,122 @@
+package com.innowise.image.filter;
+
+import com.innowise.image.config.UploadAdmissionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class UploadAdmissionFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UploadAdmissionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new UploadAdmissionFilter(new UploadAdmissionProperties(1, DataSize.ofBytes(100), 0,
+                Duration.ofMillis(10), Duration.ofSeconds(7), DataSize.ofBytes(100)), meterRegistry);
+    }
+
+    @Test
+    void reads_bypassTheLimiter() throws Exception {
+        AtomicReference<MockHttpServletResponse> read = new AtomicReference<>();
+        FilterChain holdingChain = (req, res) -> read.set(run(new MockHttpServletRequest("GET", "/api/images/123")));
+
+        filter.doFilter(upload(10), new MockHttpServletResponse(), holdingChain);
+
+        assertEquals(200, read.get().getStatus());
+    }
+
+    @Test
+    void concurrentUploadOverLimit_isRejectedWithRetryAfter() throws Exception {
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+        FilterChain holdingChain = (req, res) -> nested.set(run(upload(10)));
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(upload(10), first, holdingChain);
+
+        assertEquals(200, first.getStatus());
+        assertEquals(503, nested.get().getStatus());
+        assertEquals("7", nested.get().getHeader("Retry-After"));
+        assertEquals(1, meterRegistry.get("image.upload.admission.rejected").tag("reason", "queue_full").counter().count());
+        assertEquals(200, run(upload(10)).getStatus());
+    }
+
+    @Test
+    void uploadOverByteBudget_isRejected() throws Exception {
+        filter = new UploadAdmissionFilter(new UploadAdmissionProperties(4, DataSize.ofBytes(100), 0,
+                Duration.ofMillis(10), Duration.ofSeconds(7), DataSize.ofBytes(100)), meterRegistry);
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+        FilterChain holdingChain = (req, res) -> nested.set(run(upload(50)));
+
+        filter.doFilter(upload(80), new MockHttpServletResponse(), holdingChain);
+
+        assertEquals(503, nested.get().getStatus());
+        assertEquals(1, meterRegistry.get("image.upload.admission.rejected").tag("reason", "bytes").counter().count());
+    }
+
+    @Test
+    void uploadWithoutContentLength_isChargedTheMaximumSize() throws Exception {
+        filter = new UploadAdmissionFilter(new UploadAdmissionProperties(4, DataSize.ofBytes(100), 0,
+                Duration.ofMillis(10), Duration.ofSeconds(7), DataSize.ofBytes(100)), meterRegistry);
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+        FilterChain holdingChain = (req, res) -> nested.set(run(upload(10)));
+
+        filter.doFilter(chunkedUpload(), new MockHttpServletResponse(), holdingChain);
+
+        assertEquals(503, nested.get().getStatus());
+        assertEquals(1, meterRegistry.get("image.upload.admission.rejected").tag("reason", "bytes").counter().count());
+        assertEquals(200, run(upload(10)).getStatus());
+    }
+
+    @Test
+    void asyncUpload_holdsSlotUntilCompletion() throws Exception {
+        MockHttpServletRequest request = upload(10);
+        request.setAsyncSupported(true);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        assertEquals(1.0, meterRegistry.get("image.upload.admission.active").gauge().value());
+        assertEquals(503, run(upload(10)).getStatus());
+
+        assertNotNull(request.getAsyncContext());
+        request.getAsyncContext().complete();
+
+        assertEquals(0.0, meterRegistry.get("image.upload.admission.active").gauge().value());
+        assertEquals(200, run(upload(10)).getStatus());
+    }
+
+    private MockHttpServletResponse run(MockHttpServletRequest request) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest upload(int size) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/images");
+        request.setContentType(MediaType.MULTIPART_FORM_DATA_VALUE + "; boundary=b");
+        request.setContent(new byte[size]);
+        return request;
+    }
+
+    private static MockHttpServletRequest chunkedUpload() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/images");
+        request.setContentType(MediaType.MULTIPART_FORM_DATA_VALUE + "; boundary=b");
+        request.addHeader("Transfer-Encoding", "chunked");
+        return request;
+    }
+}
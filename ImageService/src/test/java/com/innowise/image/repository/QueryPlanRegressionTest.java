@@ -0,0 +1,219 @@
+package com.innowise.image.repository;
+
+import com.innowise.image.entity.ImageEntity;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs every repository query against a seeded schema built from the shared Liquibase changelog,
+ * captures the SQL Hibernate actually sends, and EXPLAINs it as a generic plan. Sequential scans
+ * are disabled for the EXPLAIN, so one can only appear in a plan when no index can serve the
+ * query at all; that keeps the check independent of how much data is seeded.
+ */
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanRegressionTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16"))
+            .withDatabaseName("innowise")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    private static final List<String> CAPTURED_SQL = new CopyOnWriteArrayList<>();
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Configuration
+    @EntityScan(basePackageClasses = ImageEntity.class)
+    @EnableJpaRepositories(basePackageClasses = ImageRepository.class)
+    static class RepositoryConfig {
+
+        @Bean
+        HibernatePropertiesCustomizer capturingStatementInspector() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                CAPTURED_SQL.add(sql);
+                return sql;
+            });
+        }
+    }
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private ImageRepository imageRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private LikeRepository likeRepository;
+    @Autowired
+    private BlobRepository blobRepository;
+    @Autowired
+    private ImageVariantJobRepository imageVariantJobRepository;
+    @Autowired
+    private UploadIntentRepository uploadIntentRepository;
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    private JdbcTemplate jdbc;
+    private UUID userId;
+    private UUID imageId;
+
+    @BeforeEach
+    void seed() {
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("""
+                INSERT INTO user_schema.users (id, username, email, password)
+                SELECT gen_random_uuid(), 'user' || g, 'user' || g || '@example.com', 'secret'
+                FROM generate_series(1, 100) g
+                """);
+        jdbc.execute("""
+                INSERT INTO gallery.images (id, url, uploaded_at, user_id)
+                SELECT gen_random_uuid(), 'http://localhost/' || g, now() - g * interval '1 minute', u.ids[1 + g % 100]
+                FROM generate_series(1, 20000) g,
+                     (SELECT array_agg(id) AS ids FROM user_schema.users) u
+                """);
+        jdbc.execute("""
+                INSERT INTO gallery.comments (id, image_id, user_id, content, created_at)
+                SELECT gen_random_uuid(), i.id, i.user_id, 'comment ' || k, i.uploaded_at + k * interval '1 second'
+                FROM gallery.images i, generate_series(1, 3) k
+                """);
+        jdbc.execute("""
+                INSERT INTO gallery.likes (id, image_id, user_id, created_at)
+                SELECT gen_random_uuid(), i.id, u.ids[k], now()
+                FROM gallery.images i, generate_series(1, 2) k,
+                     (SELECT array_agg(id) AS ids FROM user_schema.users) u
+                """);
+        jdbc.execute("ANALYZE");
+
+        userId = jdbc.queryForObject("SELECT user_id FROM gallery.images LIMIT 1", UUID.class);
+        imageId = jdbc.queryForObject("SELECT id FROM gallery.images WHERE user_id = ? LIMIT 1", UUID.class, userId);
+    }
+
+    @Test
+    void imageQueries_useIndexes() {
+        Instant now = Instant.now();
+        assertIndexed(() -> imageRepository.findById(imageId));
+        assertIndexed(() -> imageRepository.findByUserIdOrderByUploadedAtDesc(userId, PageRequest.of(1, 20)));
+        assertIndexed(() -> imageRepository.findAllByOrderByUploadedAtDesc(PageRequest.of(1, 20)));
+        assertIndexed(() -> imageRepository.findFeed(Limit.of(21)));
+        assertIndexed(() -> imageRepository.findFeedAfter(now, imageId, Limit.of(21)));
+        assertIndexed(() -> imageRepository.findUserFeed(userId, Limit.of(21)));
+        assertIndexed(() -> imageRepository.findUserFeedAfter(userId, now, imageId, Limit.of(21)));
+        assertIndexed(() -> imageRepository.updateVariantWidths(imageId, new Integer[]{320}));
+        assertIndexed(() -> imageRepository.findVersionById(imageId));
+        assertIndexed(() -> imageRepository.findPageVersions(PageRequest.of(1, 20)));
+        assertIndexed(() -> imageRepository.findUserPageVersions(userId, PageRequest.of(1, 20)));
+        assertIndexed(() -> imageRepository.findFeedVersions(Limit.of(21)));
+        assertIndexed(() -> imageRepository.findFeedVersionsAfter(now, imageId, Limit.of(21)));
+        assertIndexed(() -> imageRepository.findUserFeedVersions(userId, Limit.of(21)));
+        assertIndexed(() -> imageRepository.findUserFeedVersionsAfter(userId, now, imageId, Limit.of(21)));
+        assertIndexed(() -> imageRepository.bumpVersion(imageId));
+        assertIndexed(() -> imageRepository.findLikeCountById(imageId));
+        assertIndexed(() -> imageRepository.findLikeCountsByIdIn(List.of(imageId, UUID.randomUUID())));
+        assertIndexed(() -> imageRepository.adjustCommentCount(imageId, 1));
+        assertIndexed(() -> imageRepository.findIdsAfter(imageId, Limit.of(500)));
+        assertIndexed(() -> imageRepository.lockForReconcile(List.of(imageId)));
+        assertIndexed(() -> imageRepository.reconcileCounters(List.of(imageId)));
+    }
+
+    @Test
+    void commentAndLikeQueries_useIndexes() {
+        assertIndexed(() -> commentRepository.findByIdAndImageIdAndUserIdOrderByCreatedAtDesc(UUID.randomUUID(), imageId, userId));
+        assertIndexed(() -> commentRepository.findImageComments(imageId, Limit.of(51)));
+        assertIndexed(() -> commentRepository.findImageCommentsAfter(imageId, Instant.now(), UUID.randomUUID(), Limit.of(51)));
+        assertIndexed(() -> commentRepository.renameAuthor(userId, "renamed", 500));
+        assertIndexed(() -> commentRepository.findUserIdsMissingAuthorName(100));
+        assertIndexed(() -> likeRepository.toggle(imageId, userId));
+        assertIndexed(() -> likeRepository.countByImageId(imageId));
+    }
+
+    @Test
+    void uploadAndJobQueries_useIndexes() {
+        Instant now = Instant.now();
+        assertIndexed(() -> blobRepository.acquire("0".repeat(64), "sha256/" + "0".repeat(64), 4, "image/png"));
+        assertIndexed(() -> imageVariantJobRepository.leaseDue(now, now.plus(Duration.ofMinutes(5)), 10));
+        assertIndexed(() -> imageVariantJobRepository.lease(imageId, now, now.plus(Duration.ofMinutes(5))));
+        assertIndexed(() -> imageVariantJobRepository.reschedule(imageId, now));
+        assertIndexed(() -> imageVariantJobRepository.recordFailure(imageId, now, "error"));
+        assertIndexed(() -> uploadIntentRepository.findTop100ByExpiresAtBeforeOrderByExpiresAt(now));
+        assertIndexed(() -> uploadIntentRepository.deleteByIdReturningCount(UUID.randomUUID()));
+        assertIndexed(() -> uploadSessionRepository.findTop100ByExpiresAtBeforeOrderByExpiresAt(now));
+        assertIndexed(() -> uploadSessionRepository.appendPart(UUID.randomUUID(), 0, 1, "etag", now));
+        assertIndexed(() -> uploadSessionRepository.deleteByIdReturningCount(UUID.randomUUID()));
+        assertIndexed(() -> outboxEventRepository.lockBatch(500));
+        assertIndexed(() -> outboxEventRepository.deleteByIdIn(new Long[]{1L, 2L}));
+    }
+
+    private void assertIndexed(Runnable repositoryCall) {
+        CAPTURED_SQL.clear();
+        repositoryCall.run();
+        List<String> statements = new ArrayList<>(CAPTURED_SQL);
+        assertFalse(statements.isEmpty(), "Repository call issued no SQL");
+
+        jdbc.execute("SET LOCAL enable_seqscan = off");
+        for (String sql : statements) {
+            String plan = String.join("\n", jdbc.queryForList(
+                    "EXPLAIN (GENERIC_PLAN, FORMAT JSON) " + numberParameters(sql), String.class));
+            if (plan.contains("\"Seq Scan\"")) {
+                fail("Sequential scan in plan for:\n" + sql + "\n" + plan);
+            }
+        }
+    }
+
+    /**
+     * Rewrites JDBC {@code ?} placeholders as the {@code $n} parameters a generic plan expects.
+     */
+    private static String numberParameters(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+}
@@ -1,30 +1,52 @@
 package com.innowise.image.service.impl;
 
-import com.innowise.image.client.AuthServiceClient;
+import com.innowise.image.config.CacheConfig;
 import com.innowise.image.dto.CommentDto;
+import com.innowise.image.dto.PageResponseDto;
 import com.innowise.image.entity.CommentEntity;
+import com.innowise.image.mapper.CommentMapper;
+import com.innowise.image.mapper.CommentMapperImpl;
 import com.innowise.image.exception.NotFoundException;
 import com.innowise.image.repository.CommentRepository;
+import com.innowise.image.repository.CommentRow;
+import com.innowise.image.repository.ImageRepository;
 import com.innowise.image.service.KafkaProducerService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.modelmapper.ModelMapper;
-
+import org.mockito.Spy;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class CommentServiceImplTest {
@@ -33,14 +55,29 @@ class CommentServiceImplTest {
     private CommentRepository commentRepository;
 
     @Mock
-    private ModelMapper modelMapper;
+    private ImageRepository imageRepository;
+
+    @Spy
+    private CommentMapper commentMapper = new CommentMapperImpl();
 
     @Mock
-    private AuthServiceClient authServiceClient;
+    private UsernameLoader usernameLoader;
 
     @Mock
     private KafkaProducerService kafkaProducerService;
 
+    @Mock
+    private EntityCacheEvictor entityCacheEvictor;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache imagesCache;
+
     @InjectMocks
     private CommentServiceImpl commentService;
 
@@ -54,6 +91,13 @@ class CommentServiceImplTest {
         imageId = UUID.randomUUID();
         userId = UUID.randomUUID();
         commentId = UUID.randomUUID();
+        ReflectionTestUtils.setField(commentService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(commentService, "maxPageSize", 3);
+        ReflectionTestUtils.setField(commentService, "renameBatchSize", 2);
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
     }
 
     @Test
@@ -68,25 +112,35 @@ class CommentServiceImplTest {
         savedEntity.setContent("Hello");
 
         when(commentRepository.save(any(CommentEntity.class))).thenReturn(savedEntity);
-        when(modelMapper.map(any(CommentEntity.class), eq(CommentDto.class)))
-                .thenAnswer(invocation -> {
-                    CommentEntity entity = invocation.getArgument(0);
-                    CommentDto dto = new CommentDto();
-                    dto.setId(entity.getId());
-                    dto.setContent(entity.getContent());
-                    return dto;
-                });
+        when(usernameLoader.getUsername(userId)).thenReturn("alice");
 
         CommentDto result = commentService.addComment(imageId, userId, request);
 
         assertNotNull(result);
         assertEquals("Hello", result.getContent());
+        assertEquals("alice", result.getAuthorName());
         verify(commentRepository, times(1)).save(any(CommentEntity.class));
-        verify(modelMapper, times(1)).map(any(CommentEntity.class), eq(CommentDto.class));
+        verify(imageRepository).adjustCommentCount(imageId, 1);
+        verify(entityCacheEvictor).evictImage(imageId);
+        verify(commentMapper, times(1)).toDto(any(CommentEntity.class));
         verify(kafkaProducerService, times(1))
                 .sendCommentEvent(eq(userId), eq(imageId), any(UUID.class), eq("Hello"), eq(true));
     }
 
+    @Test
+    void addComment_authorUnavailable_storesWithoutNameAndShowsPlaceholder() {
+        CommentDto request = new CommentDto();
+        request.setContent("Hello");
+        when(usernameLoader.getUsername(userId)).thenReturn(null);
+        when(commentRepository.save(any(CommentEntity.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        CommentDto result = commentService.addComment(imageId, userId, request);
+
+        assertEquals(CommentMapper.UNKNOWN_AUTHOR, result.getAuthorName());
+        verify(commentRepository).save(argThat(comment -> comment.getAuthorName() == null));
+        verify(imageRepository).adjustCommentCount(imageId, 1);
+    }
+
     @Test
     void updateComment_success() {
         CommentDto request = new CommentDto();
@@ -100,20 +154,14 @@ class CommentServiceImplTest {
 
         when(commentRepository.findByIdAndImageIdAndUserIdOrderByCreatedAtDesc(commentId, imageId, userId))
                 .thenReturn(Optional.of(existing));
-        when(modelMapper.map(any(CommentEntity.class), eq(CommentDto.class)))
-                .thenAnswer(invocation -> {
-                    CommentEntity entity = invocation.getArgument(0);
-                    CommentDto dto = new CommentDto();
-                    dto.setId(entity.getId());
-                    dto.setContent(entity.getContent());
-                    return dto;
-                });
 
         CommentDto result = commentService.updateComment(imageId, commentId, userId, request);
 
         assertNotNull(result);
         assertEquals("Updated", result.getContent());
         verify(commentRepository, times(1)).save(existing);
+        verify(imageRepository).bumpVersion(imageId);
+        verify(entityCacheEvictor).evictImage(imageId);
     }
 
     @Test
@@ -139,6 +187,8 @@ class CommentServiceImplTest {
         commentService.deleteComment(imageId, commentId, userId);
 
         verify(commentRepository, times(1)).delete(existing);
+        verify(imageRepository).adjustCommentCount(imageId, -1);
+        verify(entityCacheEvictor).evictImage(imageId);
         verify(kafkaProducerService, times(1))
                 .sendCommentEvent(eq(userId), eq(imageId), eq(commentId), anyString(), eq(false));
     }
@@ -153,30 +203,83 @@ class CommentServiceImplTest {
     }
 
     @Test
-    void listComments_success() {
-        CommentEntity c1 = new CommentEntity();
-        c1.setId(UUID.randomUUID());
-        c1.setContent("c1");
-        CommentEntity c2 = new CommentEntity();
-        c2.setId(UUID.randomUUID());
-        c2.setContent("c2");
-
-        List<CommentEntity> list = List.of(c1, c2);
-
-        when(commentRepository.findAllByImageIdOrderByCreatedAtDesc(imageId)).thenReturn(list);
-        when(modelMapper.map(any(CommentEntity.class), eq(CommentDto.class)))
-                .thenAnswer(invocation -> {
-                    CommentEntity entity = invocation.getArgument(0);
-                    CommentDto dto = new CommentDto();
-                    dto.setId(entity.getId());
-                    dto.setContent(entity.getContent());
-                    return dto;
-                });
-
-        List<CommentDto> result = commentService.listComments(imageId);
-
-        assertEquals(2, result.size());
-        assertEquals("c1", result.get(0).getContent());
-        assertEquals("c2", result.get(1).getContent());
+    void listComments_firstPage_returnsCursorForNextPage() {
+        Instant now = Instant.now();
+        CommentRow c1 = new CommentRow(UUID.randomUUID(), imageId, userId, "alice", "c1", now);
+        CommentRow c2 = new CommentRow(UUID.randomUUID(), imageId, userId, "alice", "c2", now.minusSeconds(1));
+        CommentRow c3 = new CommentRow(UUID.randomUUID(), imageId, userId, null, "c3", now.minusSeconds(2));
+        when(commentRepository.findImageComments(imageId, Limit.of(3))).thenReturn(List.of(c1, c2, c3));
+
+        PageResponseDto<CommentDto> page = commentService.listComments(imageId, null, null);
+
+        assertEquals(2, page.getContent().size());
+        assertEquals("c1", page.getContent().get(0).getContent());
+        assertEquals("alice", page.getContent().get(1).getAuthorName());
+        assertFalse(page.isLast());
+        assertNotNull(page.getNextCursor());
+
+        when(commentRepository.findImageCommentsAfter(imageId, c2.createdAt(), c2.id(), Limit.of(3)))
+                .thenReturn(List.of(c3));
+
+        PageResponseDto<CommentDto> next = commentService.listComments(imageId, page.getNextCursor(), null);
+
+        assertEquals("c3", next.getContent().get(0).getContent());
+        assertEquals(CommentMapper.UNKNOWN_AUTHOR, next.getContent().get(0).getAuthorName());
+        assertTrue(next.isLast());
+        assertNull(next.getNextCursor());
+        verifyNoInteractions(usernameLoader);
+    }
+
+    @Test
+    void listComments_sizeAboveMaximum_isClamped() {
+        when(commentRepository.findImageComments(imageId, Limit.of(4))).thenReturn(List.of());
+
+        PageResponseDto<CommentDto> page = commentService.listComments(imageId, "", 1000);
+
+        assertEquals(3, page.getSize());
+        assertTrue(page.isLast());
+    }
+
+    @Test
+    void renameAuthor_repeatsUntilPartialBatch() {
+        UUID otherImageId = UUID.randomUUID();
+        when(commentRepository.renameAuthor(userId, "bob", 2))
+                .thenReturn(List.of(imageId, imageId), List.of(imageId, otherImageId), List.of(otherImageId));
+        when(cacheManager.getCache(CacheConfig.IMAGES_CACHE)).thenReturn(imagesCache);
+
+        commentService.renameAuthor(userId, "bob");
+
+        verify(usernameLoader).evict(userId);
+        verify(commentRepository, times(3)).renameAuthor(userId, "bob", 2);
+        verify(imagesCache, times(2)).evict(imageId);
+        verify(imagesCache, times(2)).evict(otherImageId);
+        verify(entityCacheEvictor, times(2)).evictImage(imageId);
+        verify(entityCacheEvictor, times(2)).evictImage(otherImageId);
+    }
+
+    @Test
+    void backfillAuthorNames_rewritesResolvedUsersOnly() {
+        UUID otherUserId = UUID.randomUUID();
+        ReflectionTestUtils.setField(commentService, "authorBackfillBatchSize", 10);
+        when(commentRepository.findUserIdsMissingAuthorName(10)).thenReturn(List.of(userId, otherUserId));
+        when(usernameLoader.getUsernames(List.of(userId, otherUserId))).thenReturn(Map.of(userId, "alice"));
+        when(commentRepository.renameAuthor(userId, "alice", 2)).thenReturn(List.of(imageId));
+
+        assertEquals(1, commentService.backfillAuthorNames());
+
+        verify(commentRepository).renameAuthor(userId, "alice", 2);
+        verify(commentRepository, never()).renameAuthor(eq(otherUserId), anyString(), anyInt());
+        verify(entityCacheEvictor).evictImage(imageId);
+        verify(usernameLoader, never()).evict(any());
+    }
+
+    @Test
+    void backfillAuthorNames_nothingMissing_skipsLookup() {
+        ReflectionTestUtils.setField(commentService, "authorBackfillBatchSize", 10);
+        when(commentRepository.findUserIdsMissingAuthorName(10)).thenReturn(List.of());
+
+        assertEquals(0, commentService.backfillAuthorNames());
+
+        verifyNoInteractions(usernameLoader);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package com.innowise.image.service.impl;
+
+import com.innowise.image.config.ObjectCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiskObjectCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void transferTo_secondReadIsServedFromDisk() throws IOException {
+        DiskObjectCache cache = cache(DataSize.ofKilobytes(64));
+
+        assertArrayEquals(bytes(100, 1), read(cache, "a", bytes(100, 1)));
+        assertArrayEquals(bytes(100, 1), read(cache, "a", bytes(100, 1)));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, meterRegistry.get("image.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1, meterRegistry.get("image.cache.requests").tag("result", "miss").counter().count());
+        assertEquals(100, cache.size());
+    }
+
+    @Test
+    void transferTo_overBudget_evictsLeastRecentlyUsed() throws IOException {
+        DiskObjectCache cache = cache(DataSize.ofBytes(250));
+
+        read(cache, "a", bytes(100, 1));
+        read(cache, "b", bytes(100, 2));
+        read(cache, "a", bytes(100, 1));
+        read(cache, "c", bytes(100, 3));
+        read(cache, "a", bytes(100, 1));
+        read(cache, "b", bytes(100, 2));
+
+        assertEquals(4, loads.get());
+        assertTrue(meterRegistry.get("image.cache.evictions").counter().count() >= 1);
+        assertEquals(200, cache.size());
+    }
+
+    @Test
+    void transferTo_objectLargerThanBudget_isServedButNotRetained() throws IOException {
+        DiskObjectCache cache = cache(DataSize.ofBytes(50));
+
+        assertArrayEquals(bytes(100, 7), read(cache, "big", bytes(100, 7)));
+
+        assertEquals(0, cache.size());
+        try (var files = Files.list(directory)) {
+            assertFalse(files.findAny().isPresent());
+        }
+    }
+
+    @Test
+    void constructor_rebuildsIndexFromDirectory() throws IOException {
+        read(cache(DataSize.ofKilobytes(64)), "a", bytes(100, 1));
+        Files.writeString(directory.resolve("partial.tmp"), "junk");
+
+        DiskObjectCache restarted = cache(DataSize.ofKilobytes(64));
+
+        assertEquals(100, restarted.size());
+        assertArrayEquals(bytes(100, 1), read(restarted, "a", bytes(100, 1)));
+        assertEquals(1, loads.get());
+        assertFalse(Files.exists(directory.resolve("partial.tmp")));
+    }
+
+    private DiskObjectCache cache(DataSize maxSize) throws IOException {
+        return new DiskObjectCache(new ObjectCacheProperties(directory, maxSize, 1), meterRegistry);
+    }
+
+    private byte[] read(DiskObjectCache cache, String key, byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.transferTo(key, file -> {
+            loads.incrementAndGet();
+            Files.write(file, content);
+        }, Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    private static byte[] bytes(int length, int value) {
+        byte[] data = new byte[length];
+        Arrays.fill(data, (byte) value);
+        return data;
+    }
+}
@@ -0,0 +1,79 @@
+package com.innowise.image.service.impl;
+
+import com.innowise.image.config.CacheConfig;
+import com.innowise.image.repository.ImageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.mockito.InOrder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImageCounterServiceImplTest {
+
+    private ImageRepository imageRepository;
+    private TransactionTemplate transactionTemplate;
+    private Cache imagesCache;
+    private EntityCacheEvictor entityCacheEvictor;
+    private ImageCounterServiceImpl counterService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        imageRepository = mock(ImageRepository.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Integer>) invocation.getArgument(0)).doInTransaction(null));
+        imagesCache = mock(Cache.class);
+        CacheManager cacheManager = mock(CacheManager.class);
+        when(cacheManager.getCache(CacheConfig.IMAGES_CACHE)).thenReturn(imagesCache);
+        entityCacheEvictor = mock(EntityCacheEvictor.class);
+        counterService = new ImageCounterServiceImpl(imageRepository, transactionTemplate, cacheManager, entityCacheEvictor);
+        ReflectionTestUtils.setField(counterService, "batchSize", 2);
+    }
+
+    @Test
+    void reconcile_walksAllBatchesInIdOrder() {
+        UUID first = new UUID(0L, 1L);
+        UUID second = new UUID(0L, 2L);
+        UUID third = new UUID(0L, 3L);
+        when(imageRepository.findIdsAfter(new UUID(0L, 0L), Limit.of(2))).thenReturn(List.of(first, second));
+        when(imageRepository.findIdsAfter(second, Limit.of(2))).thenReturn(List.of(third));
+        when(imageRepository.reconcileCounters(List.of(first, second))).thenReturn(List.of(second));
+        when(imageRepository.reconcileCounters(List.of(third))).thenReturn(List.of(third));
+
+        assertEquals(2, counterService.reconcile());
+        InOrder order = inOrder(imageRepository);
+        order.verify(imageRepository).lockForReconcile(List.of(first, second));
+        order.verify(imageRepository).reconcileCounters(List.of(first, second));
+        order.verify(imageRepository).lockForReconcile(List.of(third));
+        order.verify(imageRepository).reconcileCounters(List.of(third));
+        verify(imagesCache).evict(second);
+        verify(imagesCache).evict(third);
+        verify(imagesCache, never()).evict(first);
+        verify(entityCacheEvictor).evictImage(second);
+        verify(entityCacheEvictor).evictImage(third);
+        verify(entityCacheEvictor, never()).evictImage(first);
+    }
+
+    @Test
+    void reconcile_emptyTable_repairsNothing() {
+        when(imageRepository.findIdsAfter(new UUID(0L, 0L), Limit.of(2))).thenReturn(List.of());
+
+        assertEquals(0, counterService.reconcile());
+    }
+}
@@ -0,0 +1,85 @@
+package com.innowise.image.service.impl;
+
+import com.innowise.image.service.impl.ImageMetadataReader.ImageMetadata;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageMetadataReaderTest {
+
+    private final ImageMetadataReader reader = new ImageMetadataReader();
+
+    @Test
+    void png_readsDimensionsAndMimeType() throws Exception {
+        ImageMetadata metadata = reader.read(new ByteArrayInputStream(encode(40, 30, "png"))).orElseThrow();
+
+        assertEquals(40, metadata.width());
+        assertEquals(30, metadata.height());
+        assertEquals("image/png", metadata.mimeType());
+        assertEquals(ImageMetadataReader.DEFAULT_ORIENTATION, metadata.orientation());
+    }
+
+    @Test
+    void jpegWithExif_readsOrientation() throws Exception {
+        byte[] jpeg = withExifOrientation(encode(64, 48, "jpeg"), (short) 6);
+
+        ImageMetadata metadata = reader.read(new ByteArrayInputStream(jpeg)).orElseThrow();
+
+        assertEquals(64, metadata.width());
+        assertEquals(48, metadata.height());
+        assertEquals("image/jpeg", metadata.mimeType());
+        assertEquals(6, metadata.orientation());
+    }
+
+    @Test
+    void truncatedHeader_isStillReadFromPrefix() throws Exception {
+        byte[] png = encode(800, 600, "png");
+
+        Optional<ImageMetadata> metadata = reader.read(new ByteArrayInputStream(Arrays.copyOf(png, 64)));
+
+        assertEquals(800, metadata.orElseThrow().width());
+    }
+
+    @Test
+    void nonImage_returnsEmpty() {
+        Optional<ImageMetadata> metadata = reader.read(new ByteArrayInputStream("abcd".getBytes(StandardCharsets.UTF_8)));
+
+        assertTrue(metadata.isEmpty());
+    }
+
+    private static byte[] encode(int width, int height, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Inserts a big-endian APP1 Exif segment with a single orientation entry right after SOI.
+     */
+    private static byte[] withExifOrientation(byte[] jpeg, short orientation) {
+        ByteBuffer tiff = ByteBuffer.allocate(8 + 2 + 12 + 4);
+        tiff.put("MM".getBytes(StandardCharsets.ISO_8859_1)).putShort((short) 42).putInt(8);
+        tiff.putShort((short) 1);
+        tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort(orientation).putShort((short) 0);
+        tiff.putInt(0);
+
+        byte[] exif = "Exif\0\0".getBytes(StandardCharsets.ISO_8859_1);
+        ByteBuffer out = ByteBuffer.allocate(jpeg.length + 4 + exif.length + tiff.capacity());
+        out.put(jpeg, 0, 2);
+        out.put((byte) 0xFF).put((byte) 0xE1).putShort((short) (2 + exif.length + tiff.capacity()));
+        out.put(exif).put(tiff.array());
+        out.put(jpeg, 2, jpeg.length - 2);
+        return out.array();
+    }
+}
@@ -1,32 +1,59 @@
 package com.innowise.image.service.impl;
 
+import com.innowise.image.dto.BatchUploadResponseDto;
 import com.innowise.image.dto.ImageDto;
+import com.innowise.image.dto.PageResponseDto;
 import com.innowise.image.dto.UploadResponseDto;
 import com.innowise.image.entity.ImageEntity;
+import com.innowise.image.mapper.ImageMapperImpl;
+import com.innowise.image.exception.BadRequestException;
 import com.innowise.image.exception.NotFoundException;
+import com.innowise.image.exception.S3WriteException;
 import com.innowise.image.repository.ImageRepository;
+import com.innowise.image.repository.ImageRow;
+import com.innowise.image.repository.ImageVersion;
+import com.innowise.image.service.BlobService;
 import com.innowise.image.service.ImageService;
+import com.innowise.image.service.ImageVariantService;
+import com.innowise.image.service.S3Service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockMultipartFile;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.model.PutObjectResponse;
-
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -36,16 +63,33 @@ import static org.mockito.Mockito.when;
 
 class ImageServiceImplTest {
 
+    private static final String ABCD_SHA256 = "88d4266fd4e6338d13b845fcf289579d209c897823b9217da3e161936f031589";
+
     private ImageRepository imageRepository;
-    private S3Client s3Client;
+    private S3Service s3Service;
+    private ImageVariantService imageVariantService;
+    private BlobService blobService;
+    private TransactionTemplate transactionTemplate;
     private ImageService imageService;
 
     @BeforeEach
     void setUp() {
         imageRepository = mock(ImageRepository.class);
-        s3Client = mock(S3Client.class);
-        ModelMapper modelMapper = new ModelMapper();
-        imageService = new ImageServiceImpl(imageRepository, modelMapper, s3Client);
+        s3Service = mock(S3Service.class);
+        imageVariantService = mock(ImageVariantService.class);
+        blobService = mock(BlobService.class);
+        when(blobService.blobKey(any(String.class))).thenAnswer(inv -> "sha256/" + inv.getArgument(0));
+        when(blobService.acquire(any(String.class), any(Long.class), any()))
+                .thenAnswer(inv -> "sha256/" + inv.getArgument(0));
+        transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        imageService = new ImageServiceImpl(imageRepository, new ImageMapperImpl(), s3Service, imageVariantService, blobService,
+                new ImageMetadataReader(), transactionTemplate);
+        ReflectionTestUtils.setField(imageService, "maxStreamFileSize", DataSize.ofMegabytes(10));
+        ReflectionTestUtils.setField(imageService, "s3ExternalUrl", "http://localhost:4566");
+        ReflectionTestUtils.setField(imageService, "maxBatchFiles", 3);
+        ReflectionTestUtils.setField(imageService, "batchConcurrency", 2);
     }
 
     @Test
@@ -53,8 +97,8 @@ class ImageServiceImplTest {
         UUID userId = UUID.randomUUID();
         MockMultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", "abcd".getBytes());
 
-        when(s3Client.putObject(any(PutObjectRequest.class), any(software.amazon.awssdk.core.sync.RequestBody.class)))
-                .thenReturn(PutObjectResponse.builder().build());
+        when(s3Service.uploadAsync(any(InputStream.class), eq(4L), eq("sha256/" + ABCD_SHA256), eq("image/jpeg")))
+                .thenReturn(CompletableFuture.completedFuture(null));
 
         UUID generatedId = UUID.randomUUID();
         when(imageRepository.save(any(ImageEntity.class))).thenAnswer(inv -> {
@@ -66,14 +110,47 @@ class ImageServiceImplTest {
             return entity;
         });
 
-        UploadResponseDto resp = imageService.uploadImage(file, userId, "desc");
+        UploadResponseDto resp = imageService.uploadImage(file, userId, "desc").join();
 
         assertNotNull(resp);
         assertEquals(generatedId, resp.getId());
         assertTrue(resp.getUrl().startsWith("http://localhost:4566/images/"));
 
-        verify(s3Client, times(1)).putObject(any(PutObjectRequest.class), any(software.amazon.awssdk.core.sync.RequestBody.class));
-        verify(imageRepository, times(1)).save(any(ImageEntity.class));
+        verify(s3Service, times(1)).uploadAsync(any(InputStream.class), eq(4L), eq("sha256/" + ABCD_SHA256), eq("image/jpeg"));
+        verify(blobService).acquire(ABCD_SHA256, 4L, "image/jpeg");
+        verify(imageRepository, times(1)).save(argThat(img -> ABCD_SHA256.equals(img.getBlobHash())));
+        verify(imageVariantService).enqueue(eq(generatedId), any(String.class));
+        verify(transactionTemplate).execute(any());
+    }
+
+    @Test
+    void uploadImage_persistsHeaderMetadata() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(120, 80, BufferedImage.TYPE_INT_RGB), "png", png);
+        MockMultipartFile file = new MockMultipartFile("file", "photo.png", "application/octet-stream", png.toByteArray());
+        when(s3Service.uploadAsync(any(InputStream.class), any(Long.class), any(String.class), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(imageRepository.save(any(ImageEntity.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        imageService.uploadImage(file, UUID.randomUUID(), null).join();
+
+        verify(imageRepository).save(argThat(img -> img.getWidth() == 120 && img.getHeight() == 80
+                && "image/png".equals(img.getMimeType())
+                && img.getSizeBytes() == png.size()
+                && img.getOrientation() == 1));
+    }
+
+    @Test
+    void uploadImage_duplicateContent_skipsS3Write() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "copy.jpg", "image/jpeg", "abcd".getBytes());
+        when(blobService.exists(ABCD_SHA256)).thenReturn(true);
+        when(imageRepository.save(any(ImageEntity.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        UploadResponseDto resp = imageService.uploadImage(file, UUID.randomUUID(), "desc").join();
+
+        assertEquals("http://localhost:4566/images/sha256/" + ABCD_SHA256, resp.getUrl());
+        verify(s3Service, never()).uploadAsync(any(), any(Long.class), any(), any());
+        verify(blobService).acquire(ABCD_SHA256, 4L, "image/jpeg");
     }
 
     @Test
@@ -81,10 +158,131 @@ class ImageServiceImplTest {
         UUID userId = UUID.randomUUID();
         MockMultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", "abcd".getBytes());
 
-        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
-                .thenThrow(new RuntimeException("S3 error"));
+        when(s3Service.uploadAsync(any(InputStream.class), eq(4L), any(String.class), any(String.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("S3 error")));
 
-        assertThrows(RuntimeException.class, () -> imageService.uploadImage(file, userId, "desc"));
+        assertThrows(CompletionException.class, () -> imageService.uploadImage(file, userId, "desc").join());
+        verify(imageRepository, never()).save(any());
+    }
+
+    @Test
+    void uploadImages_reportsPartialFailureAndSavesSuccessesInOneBatch() {
+        UUID userId = UUID.randomUUID();
+        MockMultipartFile first = new MockMultipartFile("file", "a.jpg", "image/jpeg", "abcd".getBytes());
+        MockMultipartFile second = new MockMultipartFile("file", "b.jpg", "image/jpeg", "efgh".getBytes());
+        MockMultipartFile third = new MockMultipartFile("file", "c.jpg", "image/jpeg", "abcd".getBytes());
+        when(blobService.exists(ABCD_SHA256)).thenReturn(false, true);
+        when(s3Service.uploadAsync(any(InputStream.class), eq(4L), eq("sha256/" + ABCD_SHA256), any(String.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(s3Service.uploadAsync(any(InputStream.class), eq(4L), argThat(k -> !k.endsWith(ABCD_SHA256)), any(String.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("S3 error")));
+        when(imageRepository.saveAll(any())).thenAnswer(inv -> {
+            List<ImageEntity> images = inv.getArgument(0);
+            images.forEach(image -> image.setId(UUID.randomUUID()));
+            return images;
+        });
+
+        BatchUploadResponseDto response = imageService.uploadImages(List.of(first, second, third), userId,
+                List.of("first", "second", "third")).join();
+
+        assertEquals(2, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        assertNotNull(response.getResults().get(0).getId());
+        assertEquals("S3 error", response.getResults().get(1).getError());
+        assertNotNull(response.getResults().get(2).getId());
+        verify(imageRepository).saveAll(argThat(images -> images instanceof List<?> list && list.size() == 2));
+        verify(imageRepository, never()).save(any());
+        verify(imageVariantService).enqueueAll(argThat(jobs -> jobs.size() == 2));
+        verify(transactionTemplate).execute(any());
+    }
+
+    @Test
+    void uploadImages_tooManyFiles_throwsBadRequest() {
+        MockMultipartFile file = new MockMultipartFile("file", "a.jpg", "image/jpeg", "abcd".getBytes());
+
+        assertThrows(BadRequestException.class,
+                () -> imageService.uploadImages(List.of(file, file, file, file), UUID.randomUUID(), null));
+    }
+
+    @Test
+    void uploadImageStream_success() throws Exception {
+        UUID userId = UUID.randomUUID();
+        MockHttpServletRequest request = multipartRequest(
+                "--b\r\n"
+                        + "Content-Disposition: form-data; name=\"file\"; filename=\"photo.jpg\"\r\n"
+                        + "Content-Type: image/jpeg\r\n\r\n"
+                        + "abcd\r\n"
+                        + "--b\r\n"
+                        + "Content-Disposition: form-data; name=\"description\"\r\n\r\n"
+                        + "desc\r\n"
+                        + "--b--\r\n");
+
+        when(s3Service.uploadStream(any(InputStream.class), any(String.class), eq("image/jpeg"))).thenAnswer(inv -> {
+            InputStream in = inv.getArgument(0);
+            return (long) in.readAllBytes().length;
+        });
+        when(imageRepository.save(any(ImageEntity.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        imageService.uploadImageStream(request, userId);
+
+        verify(s3Service, times(1)).uploadStream(any(InputStream.class), argThat(k -> k.startsWith("staging/")), eq("image/jpeg"));
+        verify(s3Service).copy(argThat(k -> k.startsWith("staging/")), eq("sha256/" + ABCD_SHA256));
+        verify(s3Service).delete(argThat(k -> k.startsWith("staging/")));
+        verify(imageRepository).save(argThat(img ->
+                "desc".equals(img.getDescription()) && userId.equals(img.getUserId())
+                        && ABCD_SHA256.equals(img.getBlobHash())));
+    }
+
+    @Test
+    void uploadImageStream_duplicateContent_dropsStagingObject() throws Exception {
+        MockHttpServletRequest request = multipartRequest(
+                "--b\r\n"
+                        + "Content-Disposition: form-data; name=\"file\"; filename=\"photo.jpg\"\r\n"
+                        + "Content-Type: image/jpeg\r\n\r\n"
+                        + "abcd\r\n"
+                        + "--b--\r\n");
+        when(s3Service.uploadStream(any(InputStream.class), any(String.class), eq("image/jpeg"))).thenAnswer(inv -> {
+            InputStream in = inv.getArgument(0);
+            return (long) in.readAllBytes().length;
+        });
+        when(blobService.exists(ABCD_SHA256)).thenReturn(true);
+        when(imageRepository.save(any(ImageEntity.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        imageService.uploadImageStream(request, UUID.randomUUID());
+
+        verify(s3Service, never()).copy(any(), any());
+        verify(s3Service).delete(argThat(k -> k.startsWith("staging/")));
+        verify(blobService).acquire(ABCD_SHA256, 4L, "image/jpeg");
+    }
+
+    @Test
+    void uploadImageStream_copyFails_stillDeletesStagingObject() throws Exception {
+        MockHttpServletRequest request = multipartRequest(
+                "--b\r\n"
+                        + "Content-Disposition: form-data; name=\"file\"; filename=\"photo.jpg\"\r\n"
+                        + "Content-Type: image/jpeg\r\n\r\n"
+                        + "abcd\r\n"
+                        + "--b--\r\n");
+        when(s3Service.uploadStream(any(InputStream.class), any(String.class), eq("image/jpeg"))).thenAnswer(inv -> {
+            InputStream in = inv.getArgument(0);
+            return (long) in.readAllBytes().length;
+        });
+        doThrow(new S3WriteException("copy failed", null)).when(s3Service).copy(any(), any());
+
+        assertThrows(S3WriteException.class, () -> imageService.uploadImageStream(request, UUID.randomUUID()));
+        verify(s3Service).delete(argThat(k -> k.startsWith("staging/")));
+        verify(imageRepository, never()).save(any());
+    }
+
+    @Test
+    void uploadImageStream_missingFile_throwsBadRequest() {
+        MockHttpServletRequest request = multipartRequest(
+                "--b\r\n"
+                        + "Content-Disposition: form-data; name=\"description\"\r\n\r\n"
+                        + "desc\r\n"
+                        + "--b--\r\n");
+
+        assertThrows(BadRequestException.class, () -> imageService.uploadImageStream(request, UUID.randomUUID()));
         verify(imageRepository, never()).save(any());
     }
 
@@ -102,6 +300,44 @@ class ImageServiceImplTest {
         assertEquals("http://example.com/img.png", dto.getUrl());
     }
 
+    @Test
+    void getImage_withVariants_returnsVariantUrls() {
+        UUID id = UUID.randomUUID();
+        ImageEntity entity = new ImageEntity();
+        entity.setId(id);
+        entity.setUrl("http://example.com/img.png");
+        entity.setVariantWidths(new Integer[]{256, 768});
+        when(imageRepository.findById(id)).thenReturn(Optional.of(entity));
+        when(imageVariantService.variantKey(eq(id), any(Integer.class)))
+                .thenAnswer(inv -> "variants/" + id + "/w" + inv.getArgument(1) + ".jpg");
+
+        ImageDto dto = imageService.getImage(id);
+
+        assertEquals(2, dto.getVariants().size());
+        assertEquals("http://localhost:4566/images/variants/" + id + "/w256.jpg", dto.getVariants().get(256));
+    }
+
+    @Test
+    void writeImageContent_streamsObjectWithBlobContentType() throws Exception {
+        UUID id = UUID.randomUUID();
+        ImageEntity entity = new ImageEntity();
+        entity.setId(id);
+        entity.setObjectKey("sha256/" + ABCD_SHA256);
+        entity.setBlobHash(ABCD_SHA256);
+        when(imageRepository.findById(id)).thenReturn(Optional.of(entity));
+        when(blobService.contentType(ABCD_SHA256)).thenReturn(Optional.of("image/png"));
+        when(s3Service.download(eq("sha256/" + ABCD_SHA256), any(WritableByteChannel.class))).thenAnswer(inv -> {
+            WritableByteChannel channel = inv.getArgument(1);
+            return (long) channel.write(ByteBuffer.wrap("abcd".getBytes()));
+        });
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        imageService.writeImageContent(id, response);
+
+        assertEquals("image/png", response.getContentType());
+        assertEquals("abcd", response.getContentAsString());
+    }
+
     @Test
     void getImage_notFound() {
         UUID id = UUID.randomUUID();
@@ -113,13 +349,10 @@ class ImageServiceImplTest {
     @Test
     void getUserImages_success() {
         UUID userId = UUID.randomUUID();
-        ImageEntity entity = new ImageEntity();
-        entity.setId(UUID.randomUUID());
-        entity.setUserId(userId);
-        entity.setUrl("http://example.com/u.png");
+        ImageRow row = row(userId, "http://example.com/u.png", Instant.now());
 
         when(imageRepository.findByUserIdOrderByUploadedAtDesc(eq(userId), any()))
-                .thenReturn(new PageImpl<>(List.of(entity)));
+                .thenReturn(new PageImpl<>(List.of(row)));
 
         Page<ImageDto> page = imageService.getUserImages(userId, PageRequest.of(0, 10));
 
@@ -140,12 +373,10 @@ class ImageServiceImplTest {
 
     @Test
     void getAllImages_success() {
-        ImageEntity entity = new ImageEntity();
-        entity.setId(UUID.randomUUID());
-        entity.setUrl("http://example.com/all.png");
+        ImageRow row = row(UUID.randomUUID(), "http://example.com/all.png", Instant.now());
 
         when(imageRepository.findAllByOrderByUploadedAtDesc(any(PageRequest.class)))
-                .thenReturn(new PageImpl<>(List.of(entity)));
+                .thenReturn(new PageImpl<>(List.of(row)));
 
         Page<ImageDto> page = imageService.getAllImages(PageRequest.of(0, 10));
 
@@ -161,4 +392,89 @@ class ImageServiceImplTest {
 
         assertTrue(page.isEmpty());
     }
+
+    @Test
+    void getImageFeed_firstPage_returnsCursorForNextPage() {
+        Instant now = Instant.parse("2025-01-01T10:00:00.123456Z");
+        ImageRow newest = image(now);
+        ImageRow middle = image(now.minusSeconds(1));
+        ImageRow oldest = image(now.minusSeconds(2));
+        when(imageRepository.findFeed(Limit.of(3))).thenReturn(List.of(newest, middle, oldest));
+
+        PageResponseDto<ImageDto> page = imageService.getImageFeed("", 2);
+
+        assertEquals(2, page.getContent().size());
+        assertFalse(page.isLast());
+        assertNotNull(page.getNextCursor());
+
+        when(imageRepository.findFeedAfter(middle.uploadedAt(), middle.id(), Limit.of(3)))
+                .thenReturn(List.of(oldest));
+
+        PageResponseDto<ImageDto> next = imageService.getImageFeed(page.getNextCursor(), 2);
+
+        assertEquals(oldest.id(), next.getContent().get(0).getId());
+        assertTrue(next.isLast());
+        assertNull(next.getNextCursor());
+        verify(imageRepository, never()).findAllByOrderByUploadedAtDesc(any());
+    }
+
+    @Test
+    void getUserImageFeed_invalidCursor_throwsBadRequest() {
+        assertThrows(BadRequestException.class,
+                () -> imageService.getUserImageFeed(UUID.randomUUID(), "not-a-cursor", 10));
+    }
+
+    @Test
+    void getImagesVersionTag_changesWithAnyRowVersion() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(imageRepository.findFeedVersions(Limit.of(3)))
+                .thenReturn(List.of(version(first, 1), version(second, 4)))
+                .thenReturn(List.of(version(first, 1), version(second, 4)))
+                .thenReturn(List.of(version(first, 1), version(second, 5)));
+
+        String tag = imageService.getImagesVersionTag("", PageRequest.of(0, 2));
+
+        assertEquals(tag, imageService.getImagesVersionTag("", PageRequest.of(0, 2)));
+        assertNotEquals(tag, imageService.getImagesVersionTag("", PageRequest.of(0, 2)));
+        verify(imageRepository, never()).findFeed(any());
+    }
+
+    @Test
+    void getImageVersionTag_unknownImage_returnsNull() {
+        UUID id = UUID.randomUUID();
+        when(imageRepository.findVersionById(id)).thenReturn(Optional.empty());
+
+        assertNull(imageService.getImageVersionTag(id));
+    }
+
+    private static ImageVersion version(UUID id, long version) {
+        return new ImageVersion() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public long getVersion() {
+                return version;
+            }
+        };
+    }
+
+    private static ImageRow image(Instant uploadedAt) {
+        return row(UUID.randomUUID(), "http://example.com/" + uploadedAt, uploadedAt);
+    }
+
+    private static ImageRow row(UUID userId, String url, Instant uploadedAt) {
+        return new ImageRow(UUID.randomUUID(), url, null, uploadedAt, userId, null, null, null, null, null,
+                0, 0, 0L, null);
+    }
+
+    private MockHttpServletRequest multipartRequest(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/images/stream");
+        request.setContentType("multipart/form-data; boundary=b");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
 }
\ No newline at end of file
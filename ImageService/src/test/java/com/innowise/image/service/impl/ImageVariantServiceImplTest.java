@@ -0,0 +1,141 @@
+package com.innowise.image.service.impl;
+
+import com.innowise.image.config.ImageVariantProperties;
+import com.innowise.image.entity.ImageVariantJobEntity;
+import com.innowise.image.repository.ImageRepository;
+import com.innowise.image.repository.ImageVariantJobRepository;
+import com.innowise.image.service.S3Service;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImageVariantServiceImplTest {
+
+    private ImageVariantJobRepository jobRepository;
+    private ImageRepository imageRepository;
+    private S3Service s3Service;
+    private ThreadPoolTaskExecutor executor;
+    private ImageVariantServiceImpl variantService;
+
+    @BeforeEach
+    void setUp() {
+        jobRepository = mock(ImageVariantJobRepository.class);
+        imageRepository = mock(ImageRepository.class);
+        s3Service = mock(S3Service.class);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(4);
+        executor.initialize();
+        variantService = service(16_000_000);
+    }
+
+    private ImageVariantServiceImpl service(long maxPixels) {
+        ImageVariantProperties properties = new ImageVariantProperties(List.of(256, 768, 1600), 0.85f, 1, 4,
+                Duration.ofSeconds(10), Duration.ofMinutes(10), Duration.ofSeconds(30), 3, maxPixels);
+        return new ImageVariantServiceImpl(jobRepository, imageRepository, s3Service, properties, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void process_largeImage_generatesAllWidths() throws Exception {
+        UUID imageId = UUID.randomUUID();
+        when(s3Service.openStream("key")).thenReturn(new ByteArrayInputStream(png(2000, 1000)));
+
+        variantService.process(imageId, "key", 0);
+
+        verify(s3Service).upload(any(byte[].class), eq("variants/" + imageId + "/w256.jpg"), eq("image/jpeg"));
+        verify(s3Service).upload(any(byte[].class), eq("variants/" + imageId + "/w768.jpg"), eq("image/jpeg"));
+        verify(s3Service).upload(any(byte[].class), eq("variants/" + imageId + "/w1600.jpg"), eq("image/jpeg"));
+        verify(imageRepository).updateVariantWidths(imageId, new Integer[]{256, 768, 1600});
+        verify(jobRepository).deleteById(imageId);
+    }
+
+    @Test
+    void process_smallImage_skipsLargerWidths() throws Exception {
+        UUID imageId = UUID.randomUUID();
+        when(s3Service.openStream("key")).thenReturn(new ByteArrayInputStream(png(300, 200)));
+
+        variantService.process(imageId, "key", 0);
+
+        verify(s3Service).upload(any(byte[].class), eq("variants/" + imageId + "/w256.jpg"), eq("image/jpeg"));
+        verify(imageRepository).updateVariantWidths(imageId, new Integer[]{256});
+    }
+
+    @Test
+    void process_tallNarrowImage_skipsWidthsOverPixelBudget() throws Exception {
+        UUID imageId = UUID.randomUUID();
+        variantService = service(1_000_000);
+        when(s3Service.openStream("key")).thenReturn(new ByteArrayInputStream(png(1000, 4000)));
+
+        variantService.process(imageId, "key", 0);
+
+        verify(s3Service).upload(any(byte[].class), eq("variants/" + imageId + "/w256.jpg"), eq("image/jpeg"));
+        verify(s3Service, never()).upload(any(byte[].class), eq("variants/" + imageId + "/w768.jpg"), anyString());
+        verify(imageRepository).updateVariantWidths(imageId, new Integer[]{256});
+    }
+
+    @Test
+    void process_unreadableSource_reschedulesWithBackoff() {
+        UUID imageId = UUID.randomUUID();
+        when(s3Service.openStream("key")).thenReturn(new ByteArrayInputStream("not an image".getBytes()));
+
+        variantService.process(imageId, "key", 0);
+
+        verify(jobRepository).recordFailure(eq(imageId), argThat(next -> next != null && next.isAfter(Instant.now())), anyString());
+        verify(jobRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void process_lastAttemptFails_parksJob() {
+        UUID imageId = UUID.randomUUID();
+        when(s3Service.openStream("key")).thenThrow(new IllegalStateException("S3 down"));
+
+        variantService.process(imageId, "key", 2);
+
+        verify(jobRepository).recordFailure(eq(imageId), isNull(), eq("S3 down"));
+    }
+
+    @Test
+    void dispatchDueJobs_leasesUpToQueueCapacity() {
+        ImageVariantJobEntity job = ImageVariantJobEntity.builder()
+                .imageId(UUID.randomUUID())
+                .objectKey("key")
+                .build();
+        when(jobRepository.leaseDue(any(Instant.class), any(Instant.class), eq(4))).thenReturn(List.of(job));
+        when(s3Service.openStream("key")).thenThrow(new IllegalStateException("S3 down"));
+
+        assertEquals(1, variantService.dispatchDueJobs());
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,51 @@
+package com.innowise.image.service.impl;
+
+import com.innowise.common.dto.event.CommentEventDto;
+import com.innowise.image.entity.OutboxEventEntity;
+import com.innowise.image.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+
+class KafkaProducerServiceImplTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @InjectMocks
+    private KafkaProducerServiceImpl kafkaProducerService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void sendCommentEvent_writesOutboxRow() {
+        UUID userId = UUID.randomUUID();
+        UUID imageId = UUID.randomUUID();
+        UUID commentId = UUID.randomUUID();
+
+        kafkaProducerService.sendCommentEvent(userId, imageId, commentId, "Hello", true);
+
+        ArgumentCaptor<OutboxEventEntity> saved = ArgumentCaptor.forClass(OutboxEventEntity.class);
+        verify(outboxEventRepository).save(saved.capture());
+        OutboxEventEntity event = saved.getValue();
+        assertEquals(KafkaProducerServiceImpl.COMMENT_TOPIC, event.getTopic());
+        assertEquals(userId.toString(), event.getEventKey());
+        assertEquals(CommentEventDto.class.getName(), event.getEventType());
+        assertTrue(event.getPayload().contains("\"commentId\":\"" + commentId + "\""));
+        assertTrue(event.getPayload().contains("\"content\":\"Hello\""));
+        assertNotNull(event.getCreatedAt());
+    }
+}
@@ -1,18 +1,35 @@
 package com.innowise.image.service.impl;
 
-import com.innowise.image.entity.LikeEntity;
+import com.innowise.image.config.CacheConfig;
+import com.innowise.image.dto.LikeToggleDto;
+import com.innowise.image.exception.BadRequestException;
+import com.innowise.image.repository.ImageLikeCount;
+import com.innowise.image.repository.ImageRepository;
 import com.innowise.image.repository.LikeRepository;
+import com.innowise.image.repository.LikeToggle;
 import com.innowise.image.service.KafkaProducerService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -22,36 +39,108 @@ class LikeServiceImplTest {
     @Mock
     private LikeRepository likeRepository;
 
+    @Mock
+    private ImageRepository imageRepository;
+
     @Mock
     private KafkaProducerService kafkaProducerService;
 
+    @Mock
+    private EntityCacheEvictor entityCacheEvictor;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache imagesCache;
+
     @InjectMocks
     private LikeServiceImpl likeService;
 
     @BeforeEach
     void init() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(likeService, "maxBatchIds", 3);
+        when(cacheManager.getCache(CacheConfig.IMAGES_CACHE)).thenReturn(imagesCache);
     }
 
     @Test
-    void toggleLike_addAndRemove() {
+    void toggleLike_changed_evictsAndSendsEvent() {
         UUID userId = UUID.randomUUID();
         UUID imageId = UUID.randomUUID();
+        when(likeRepository.toggle(imageId, userId)).thenReturn(toggle(true, true, 4));
 
-        when(likeRepository.findByImageIdAndUserId(imageId, userId)).thenReturn(Optional.empty());
-        likeService.toggleLike(imageId, userId);
-        verify(likeRepository, times(1)).save(any());
+        LikeToggleDto result = likeService.toggleLike(imageId, userId);
 
-        LikeEntity like = new LikeEntity();
-        when(likeRepository.findByImageIdAndUserId(imageId, userId)).thenReturn(Optional.of(like));
-        likeService.toggleLike(imageId, userId);
-        verify(likeRepository, times(1)).delete(like);
+        assertTrue(result.isLiked());
+        assertEquals(4, result.getLikesCount());
+        verify(imagesCache).evict(imageId);
+        verify(entityCacheEvictor).evictImage(imageId);
+        verify(kafkaProducerService).sendLikeEvent(userId, imageId, true);
     }
 
     @Test
-    void countLikes_callsRepository() {
+    void toggleLike_lostRace_sendsNoEvent() {
+        UUID userId = UUID.randomUUID();
         UUID imageId = UUID.randomUUID();
-        likeService.countLikes(imageId);
-        verify(likeRepository).countByImageId(imageId);
+        when(likeRepository.toggle(imageId, userId)).thenReturn(toggle(true, false, 4));
+
+        LikeToggleDto result = likeService.toggleLike(imageId, userId);
+
+        assertTrue(result.isLiked());
+        verify(imagesCache, never()).evict(any());
+        verify(entityCacheEvictor, never()).evictImage(any());
+        verify(kafkaProducerService, never()).sendLikeEvent(any(), any(), anyBoolean());
+    }
+
+    @Test
+    void countLikes_batch_returnsEveryRequestedIdFromOneQuery() {
+        UUID liked = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        ImageLikeCount row = mock(ImageLikeCount.class);
+        when(row.getId()).thenReturn(liked);
+        when(row.getLikeCount()).thenReturn(7);
+        when(imageRepository.findLikeCountsByIdIn(any())).thenReturn(List.of(row));
+
+        Map<UUID, Integer> counts = likeService.countLikes(List.of(liked, unknown, liked));
+
+        assertEquals(Map.of(liked, 7, unknown, 0), counts);
+        verify(imageRepository, times(1)).findLikeCountsByIdIn(Set.of(liked, unknown));
+    }
+
+    @Test
+    void countLikes_batchOverLimit_throwsBadRequest() {
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        assertThrows(BadRequestException.class, () -> likeService.countLikes(ids));
+        verify(imageRepository, never()).findLikeCountsByIdIn(any());
+    }
+
+    @Test
+    void countLikes_readsDenormalizedCounter() {
+        UUID imageId = UUID.randomUUID();
+        when(imageRepository.findLikeCountById(imageId)).thenReturn(Optional.of(3));
+
+        assertEquals(3, likeService.countLikes(imageId));
+        verify(likeRepository, never()).countByImageId(any());
+    }
+
+    private static LikeToggle toggle(boolean liked, boolean changed, int likeCount) {
+        return new LikeToggle() {
+            @Override
+            public boolean getLiked() {
+                return liked;
+            }
+
+            @Override
+            public boolean getChanged() {
+                return changed;
+            }
+
+            @Override
+            public int getLikeCount() {
+                return likeCount;
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,169 @@
+package com.innowise.image.service.impl;
+
+import com.innowise.image.entity.OutboxEventEntity;
+import com.innowise.image.repository.OutboxEventRepository;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayServiceImplTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private OutboxRelayServiceImpl outboxRelayService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(outboxRelayService, "batchSize", 2);
+        ReflectionTestUtils.setField(outboxRelayService, "sendTimeout", Duration.ofMillis(100));
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Integer>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    void relay_sendsBatchesUntilPartialAndDeletesSentRows() {
+        when(outboxEventRepository.lockBatch(2))
+                .thenReturn(List.of(event(1L), event(2L)))
+                .thenReturn(List.of(event(3L)));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        int relayed = outboxRelayService.relay();
+
+        assertEquals(3, relayed);
+        verify(outboxEventRepository).deleteByIdIn(new Long[]{1L, 2L});
+        verify(outboxEventRepository).deleteByIdIn(new Long[]{3L});
+        verify(outboxEventRepository, times(2)).lockBatch(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relay_setsKeyAndTypeHeader() {
+        when(outboxEventRepository.lockBatch(2)).thenReturn(List.of(event(1L)));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        outboxRelayService.relay();
+
+        ArgumentCaptor<ProducerRecord<String, String>> record = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(record.capture());
+        assertEquals("image-like-events", record.getValue().topic());
+        assertEquals("user-1", record.getValue().key());
+        assertEquals("{\"added\":true}", record.getValue().value());
+        assertArrayEquals("com.innowise.common.dto.event.LikeEventDto".getBytes(StandardCharsets.UTF_8),
+                record.getValue().headers().lastHeader("__TypeId__").value());
+    }
+
+    @Test
+    void relay_failedSend_keepsRowAndStops() {
+        when(outboxEventRepository.lockBatch(2)).thenReturn(List.of(event(1L), event(2L)));
+        CompletableFuture<SendResult<String, String>> failed = CompletableFuture.failedFuture(new IllegalStateException("broker down"));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(failed);
+
+        int relayed = outboxRelayService.relay();
+
+        assertEquals(1, relayed);
+        verify(outboxEventRepository).deleteByIdIn(new Long[]{1L});
+        verify(outboxEventRepository, times(1)).lockBatch(anyInt());
+    }
+
+    @Test
+    void relay_failedSend_keepsLaterRowsOfSameKeyOnly() {
+        ReflectionTestUtils.setField(outboxRelayService, "batchSize", 3);
+        when(outboxEventRepository.lockBatch(3)).thenReturn(List.of(event(1L, "user-1"), event(2L, "user-1"), event(3L, "user-2")));
+        CompletableFuture<SendResult<String, String>> failed = CompletableFuture.failedFuture(new IllegalStateException("broker down"));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(failed)
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        int relayed = outboxRelayService.relay();
+
+        assertEquals(1, relayed);
+        verify(outboxEventRepository).deleteByIdIn(new Long[]{3L});
+    }
+
+    @Test
+    void relay_unacknowledgedSend_timesOutAndKeepsRow() {
+        when(outboxEventRepository.lockBatch(2)).thenReturn(List.of(event(1L, "user-1"), event(2L, "user-2")));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(new CompletableFuture<>())
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        int relayed = outboxRelayService.relay();
+
+        assertEquals(1, relayed);
+        verify(outboxEventRepository).deleteByIdIn(new Long[]{2L});
+    }
+
+    @Test
+    void relay_producerThrows_stopsSendingAndKeepsRemainingRows() {
+        when(outboxEventRepository.lockBatch(2)).thenReturn(List.of(event(1L, "user-1"), event(2L, "user-2")));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenThrow(new KafkaException("metadata not available"));
+
+        int relayed = outboxRelayService.relay();
+
+        assertEquals(1, relayed);
+        verify(kafkaTemplate, times(2)).send(any(ProducerRecord.class));
+        verify(outboxEventRepository).deleteByIdIn(new Long[]{1L});
+    }
+
+    @Test
+    void relay_emptyOutbox_sendsNothing() {
+        when(outboxEventRepository.lockBatch(2)).thenReturn(List.of());
+
+        assertEquals(0, outboxRelayService.relay());
+
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+        verify(outboxEventRepository, never()).deleteByIdIn(any());
+    }
+
+    private static OutboxEventEntity event(long id) {
+        return event(id, "user-1");
+    }
+
+    private static OutboxEventEntity event(long id, String key) {
+        return OutboxEventEntity.builder()
+                .id(id)
+                .topic("image-like-events")
+                .eventKey(key)
+                .eventType("com.innowise.common.dto.event.LikeEventDto")
+                .payload("{\"added\":true}")
+                .build();
+    }
+}
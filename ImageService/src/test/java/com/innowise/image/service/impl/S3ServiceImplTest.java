@@ -1,18 +1,51 @@
 package com.innowise.image.service.impl;
 
+import com.innowise.image.config.S3MultipartProperties;
 import com.innowise.image.config.S3Properties;
+import com.innowise.image.exception.S3WriteException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.util.unit.DataSize;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
 import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
 import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class S3ServiceImplTest {
@@ -20,16 +53,27 @@ class S3ServiceImplTest {
     @Mock
     private S3Client s3Client;
     @Mock
+    private S3AsyncClient s3AsyncClient;
+    @Mock
+    private S3Presigner s3Presigner;
+    @Mock
     private S3Properties properties;
 
     @InjectMocks
     private S3ServiceImpl s3Service;
 
+    private S3ServiceImpl streamingService;
+    private int partSize;
+
     @BeforeEach
     void init() {
         MockitoAnnotations.openMocks(this);
         when(properties.bucket()).thenReturn("bucket");
         when(properties.endpoint()).thenReturn("http://localhost");
+
+        S3MultipartProperties multipart = new S3MultipartProperties(DataSize.ofMegabytes(5), 2, 2, 1, 1, 0);
+        partSize = (int) multipart.partSize().toBytes();
+        streamingService = new S3ServiceImpl(s3Client, s3AsyncClient, s3Presigner, properties, multipart, new PartBufferPool(multipart), Runnable::run, null);
     }
 
     @Test
@@ -47,4 +91,106 @@ class S3ServiceImplTest {
         when(s3Client.headObject(any(HeadObjectRequest.class))).thenThrow(S3Exception.builder().build());
         assertFalse(s3Service.exists("key"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void uploadStream_smallContent_usesSinglePut() throws Exception {
+        long written = streamingService.uploadStream(new ByteArrayInputStream(new byte[1024]), "key", "image/png");
+
+        assertEquals(1024, written);
+        verify(s3Client).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(s3Client, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+    }
+
+    @Test
+    void uploadStream_largeContent_uploadsParts() throws Exception {
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag").build());
+
+        long written = streamingService.uploadStream(new ByteArrayInputStream(new byte[partSize * 2 + 10]), "key", "image/png");
+
+        assertEquals(partSize * 2L + 10, written);
+        verify(s3Client, times(3)).uploadPart(any(UploadPartRequest.class), any(RequestBody.class));
+        verify(s3Client).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+        verify(s3Client, never()).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    }
+
+    @Test
+    void uploadStream_partFails_abortsUpload() {
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenThrow(S3Exception.builder().message("boom").build());
+
+        ByteArrayInputStream content = new ByteArrayInputStream(new byte[partSize * 2]);
+        assertThrows(RuntimeException.class, () -> streamingService.uploadStream(content, "key", "image/png"));
+
+        verify(s3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    void uploadAsync_writesContentAndCompletes() {
+        AtomicLong received = new AtomicLong();
+        when(s3AsyncClient.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class))).thenAnswer(inv -> {
+            CompletableFuture<PutObjectResponse> response = new CompletableFuture<>();
+            AsyncRequestBody body = inv.getArgument(1);
+            body.subscribe(new Subscriber<ByteBuffer>() {
+                @Override
+                public void onSubscribe(Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(ByteBuffer buffer) {
+                    received.addAndGet(buffer.remaining());
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    response.completeExceptionally(t);
+                }
+
+                @Override
+                public void onComplete() {
+                    response.complete(PutObjectResponse.builder().build());
+                }
+            });
+            return response;
+        });
+
+        CompletableFuture<Void> upload = streamingService.uploadAsync(new ByteArrayInputStream(new byte[4096]), 4096, "key", "image/png");
+
+        upload.join();
+        assertEquals(4096, received.get());
+    }
+
+    @Test
+    void uploadAsync_ioExecutorSaturated_failsWithoutBlocking() {
+        when(s3AsyncClient.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(new CompletableFuture<>());
+        S3ServiceImpl saturated = new S3ServiceImpl(s3Client, s3AsyncClient, s3Presigner, properties,
+                new S3MultipartProperties(DataSize.ofMegabytes(5), 2, 2, 1, 1, 0), null,
+                task -> { throw new RejectedExecutionException("full"); }, null);
+
+        CompletableFuture<Void> upload = saturated.uploadAsync(new ByteArrayInputStream(new byte[16]), 16, "key", "image/png");
+
+        CompletionException failure = assertThrows(CompletionException.class, upload::join);
+        assertInstanceOf(S3WriteException.class, failure.getCause());
+    }
+
+    @Test
+    void existsAsync_returnsFalseOnS3Exception() {
+        when(s3AsyncClient.headObject(any(HeadObjectRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(NoSuchKeyException.builder().build()));
+        assertFalse(streamingService.existsAsync("key").join());
+    }
+
+    @Test
+    void existsAsync_returnsTrueWhenPresent() {
+        when(s3AsyncClient.headObject(any(HeadObjectRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(HeadObjectResponse.builder().build()));
+        assertTrue(streamingService.existsAsync("key").join());
+    }
+}
@@ -0,0 +1,180 @@
+package com.innowise.image.service.impl;
+
+import com.innowise.image.dto.UploadIntentDto;
+import com.innowise.image.dto.UploadIntentRequestDto;
+import com.innowise.image.dto.UploadResponseDto;
+import com.innowise.image.entity.UploadIntentEntity;
+import com.innowise.image.exception.BadRequestException;
+import com.innowise.image.exception.ConflictException;
+import com.innowise.image.exception.ForbiddenException;
+import com.innowise.image.repository.UploadIntentRepository;
+import com.innowise.image.service.ImageService;
+import com.innowise.image.service.ObjectHead;
+import com.innowise.image.service.S3Service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadIntentServiceImplTest {
+
+    @Mock
+    private UploadIntentRepository uploadIntentRepository;
+
+    @Mock
+    private ImageService imageService;
+
+    @Mock
+    private S3Service s3Service;
+
+    @InjectMocks
+    private UploadIntentServiceImpl uploadIntentService;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(uploadIntentService, "intentTtl", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(uploadIntentService, "sweepGrace", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(uploadIntentService, "maxFileSize", DataSize.ofMegabytes(512));
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void createIntent_returnsPresignedUrl() {
+        when(uploadIntentRepository.save(any(UploadIntentEntity.class))).thenAnswer(inv -> {
+            UploadIntentEntity entity = inv.getArgument(0);
+            entity.setId(UUID.randomUUID());
+            return entity;
+        });
+        when(s3Service.presignPut(anyString(), eq("image/png"), eq(1024L), eq(Duration.ofMinutes(15))))
+                .thenReturn("http://s3/presigned");
+
+        UploadIntentDto dto = uploadIntentService.createIntent(userId,
+                new UploadIntentRequestDto("photo.png", "image/png", 1024L, "desc"));
+
+        assertEquals("http://s3/presigned", dto.getUploadUrl());
+        assertTrue(dto.getKey().endsWith("-photo.png"));
+    }
+
+    @Test
+    void createIntent_rejectsNonImageContentType() {
+        UploadIntentRequestDto request = new UploadIntentRequestDto("notes.txt", "text/plain", 1024L, null);
+
+        assertThrows(BadRequestException.class, () -> uploadIntentService.createIntent(userId, request));
+        verify(uploadIntentRepository, never()).save(any());
+    }
+
+    @Test
+    void createIntent_rejectsMissingOrOversizedSize() {
+        UploadIntentRequestDto missing = new UploadIntentRequestDto("photo.png", "image/png", null, null);
+        UploadIntentRequestDto oversized = new UploadIntentRequestDto("photo.png", "image/png",
+                DataSize.ofMegabytes(513).toBytes(), null);
+
+        assertThrows(BadRequestException.class, () -> uploadIntentService.createIntent(userId, missing));
+        assertThrows(BadRequestException.class, () -> uploadIntentService.createIntent(userId, oversized));
+        verify(uploadIntentRepository, never()).save(any());
+    }
+
+    @Test
+    void commit_registersImage() {
+        UploadIntentEntity intent = intent(userId, Instant.now().plusSeconds(60));
+        UploadResponseDto response = new UploadResponseDto(UUID.randomUUID(), "http://s3/key");
+        when(uploadIntentRepository.findById(intent.getId())).thenReturn(Optional.of(intent));
+        when(s3Service.head("key")).thenReturn(Optional.of(new ObjectHead(1024, "image/png")));
+        when(uploadIntentRepository.deleteByIdReturningCount(intent.getId())).thenReturn(1);
+        when(imageService.registerImage("key", userId, "desc")).thenReturn(response);
+
+        assertSame(response, uploadIntentService.commit(intent.getId(), userId));
+    }
+
+    @Test
+    void commit_objectMissing_throwsConflict() {
+        UploadIntentEntity intent = intent(userId, Instant.now().plusSeconds(60));
+        when(uploadIntentRepository.findById(intent.getId())).thenReturn(Optional.of(intent));
+        when(s3Service.head("key")).thenReturn(Optional.empty());
+
+        UUID intentId = intent.getId();
+        assertThrows(ConflictException.class, () -> uploadIntentService.commit(intentId, userId));
+        verify(imageService, never()).registerImage(any(), any(), any());
+    }
+
+    @Test
+    void commit_sizeMismatch_deletesObjectAndRejects() {
+        UploadIntentEntity intent = intent(userId, Instant.now().plusSeconds(60));
+        when(uploadIntentRepository.findById(intent.getId())).thenReturn(Optional.of(intent));
+        when(s3Service.head("key")).thenReturn(Optional.of(new ObjectHead(4096, "image/png")));
+
+        UUID intentId = intent.getId();
+        assertThrows(BadRequestException.class, () -> uploadIntentService.commit(intentId, userId));
+        verify(s3Service).delete("key");
+        verify(uploadIntentRepository, never()).deleteByIdReturningCount(any());
+        verify(imageService, never()).registerImage(any(), any(), any());
+    }
+
+    @Test
+    void commit_contentTypeMismatch_deletesObjectAndRejects() {
+        UploadIntentEntity intent = intent(userId, Instant.now().plusSeconds(60));
+        when(uploadIntentRepository.findById(intent.getId())).thenReturn(Optional.of(intent));
+        when(s3Service.head("key")).thenReturn(Optional.of(new ObjectHead(1024, "text/html")));
+
+        UUID intentId = intent.getId();
+        assertThrows(BadRequestException.class, () -> uploadIntentService.commit(intentId, userId));
+        verify(s3Service).delete("key");
+        verify(imageService, never()).registerImage(any(), any(), any());
+    }
+
+    @Test
+    void commit_otherUser_throwsForbidden() {
+        UploadIntentEntity intent = intent(UUID.randomUUID(), Instant.now().plusSeconds(60));
+        when(uploadIntentRepository.findById(intent.getId())).thenReturn(Optional.of(intent));
+
+        UUID intentId = intent.getId();
+        assertThrows(ForbiddenException.class, () -> uploadIntentService.commit(intentId, userId));
+    }
+
+    @Test
+    void sweepExpired_deletesObjectsAndIntents() {
+        UploadIntentEntity intent = intent(userId, Instant.now().minusSeconds(3600));
+        when(uploadIntentRepository.findTop100ByExpiresAtBeforeOrderByExpiresAt(any(Instant.class)))
+                .thenReturn(List.of(intent));
+
+        assertEquals(1, uploadIntentService.sweepExpired());
+        verify(s3Service).delete("key");
+        verify(uploadIntentRepository).deleteById(intent.getId());
+    }
+
+    private UploadIntentEntity intent(UUID owner, Instant expiresAt) {
+        return UploadIntentEntity.builder()
+                .id(UUID.randomUUID())
+                .userId(owner)
+                .objectKey("key")
+                .contentType("image/png")
+                .totalSize(1024L)
+                .description("desc")
+                .createdAt(Instant.now())
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
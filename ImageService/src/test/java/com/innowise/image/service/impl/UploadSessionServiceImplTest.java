@@ -0,0 +1,240 @@
+package com.innowise.image.service.impl;
+
+import com.innowise.image.dto.UploadResponseDto;
+import com.innowise.image.dto.UploadSessionDto;
+import com.innowise.image.dto.UploadSessionRequestDto;
+import com.innowise.image.entity.UploadSessionEntity;
+import com.innowise.image.exception.BadRequestException;
+import com.innowise.image.exception.ConflictException;
+import com.innowise.image.exception.ForbiddenException;
+import com.innowise.image.exception.S3WriteException;
+import com.innowise.image.repository.UploadSessionRepository;
+import com.innowise.image.service.ImageService;
+import com.innowise.image.service.S3Service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadSessionServiceImplTest {
+
+    private static final long CHUNK = DataSize.ofMegabytes(5).toBytes();
+
+    @Mock
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Mock
+    private ImageService imageService;
+
+    @Mock
+    private S3Service s3Service;
+
+    @InjectMocks
+    private UploadSessionServiceImpl uploadSessionService;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(uploadSessionService, "chunkSize", DataSize.ofMegabytes(5));
+        ReflectionTestUtils.setField(uploadSessionService, "maxFileSize", DataSize.ofMegabytes(100));
+        ReflectionTestUtils.setField(uploadSessionService, "sessionTtl", Duration.ofHours(24));
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void createSession_startsMultipartUpload() {
+        when(s3Service.startMultipart(anyString(), eq("image/png"))).thenReturn("upload-1");
+        when(uploadSessionRepository.save(any(UploadSessionEntity.class))).thenAnswer(inv -> {
+            UploadSessionEntity entity = inv.getArgument(0);
+            entity.setId(UUID.randomUUID());
+            return entity;
+        });
+
+        UploadSessionDto dto = uploadSessionService.createSession(userId,
+                new UploadSessionRequestDto("a.png", "image/png", 12L * 1024 * 1024, "desc"));
+
+        assertEquals(0, dto.getOffset());
+        assertEquals(CHUNK, dto.getChunkSize());
+        verify(uploadSessionRepository).save(any(UploadSessionEntity.class));
+    }
+
+    @Test
+    void createSession_tooLarge_throwsBadRequest() {
+        UploadSessionRequestDto request = new UploadSessionRequestDto("a.png", "image/png", DataSize.ofGigabytes(1).toBytes(), null);
+
+        assertThrows(BadRequestException.class, () -> uploadSessionService.createSession(userId, request));
+        verify(s3Service, never()).startMultipart(anyString(), anyString());
+    }
+
+    @Test
+    void appendChunk_uploadsPartForOffset() {
+        UploadSessionEntity session = session(CHUNK, new String[]{"etag-1"});
+        InputStream content = new ByteArrayInputStream(new byte[0]);
+        when(uploadSessionRepository.findById(session.getId())).thenReturn(Optional.of(session));
+        when(s3Service.uploadPart("key", "upload-1", 2, content, CHUNK)).thenReturn("etag-2");
+        when(uploadSessionRepository.appendPart(eq(session.getId()), eq(CHUNK), eq(CHUNK), eq("etag-2"), any(Instant.class)))
+                .thenReturn(1);
+
+        long offset = uploadSessionService.appendChunk(session.getId(), userId, CHUNK, content, CHUNK);
+
+        assertEquals(2 * CHUNK, offset);
+    }
+
+    @Test
+    void appendChunk_lastChunkMayBeShort() {
+        UploadSessionEntity session = session(2 * CHUNK, new String[]{"etag-1", "etag-2"});
+        InputStream content = new ByteArrayInputStream(new byte[0]);
+        long remaining = session.getTotalSize() - 2 * CHUNK;
+        when(uploadSessionRepository.findById(session.getId())).thenReturn(Optional.of(session));
+        when(s3Service.uploadPart("key", "upload-1", 3, content, remaining)).thenReturn("etag-3");
+        when(uploadSessionRepository.appendPart(any(), anyLong(), anyLong(), anyString(), any())).thenReturn(1);
+
+        assertEquals(session.getTotalSize(), uploadSessionService.appendChunk(session.getId(), userId, 2 * CHUNK, content, remaining));
+    }
+
+    @Test
+    void appendChunk_offsetMismatch_throwsConflict() {
+        UploadSessionEntity session = session(CHUNK, new String[]{"etag-1"});
+        when(uploadSessionRepository.findById(session.getId())).thenReturn(Optional.of(session));
+
+        assertThrows(ConflictException.class, () -> uploadSessionService.appendChunk(session.getId(), userId, 0,
+                new ByteArrayInputStream(new byte[0]), CHUNK));
+        verify(s3Service, never()).uploadPart(anyString(), anyString(), anyInt(), any(), anyLong());
+    }
+
+    @Test
+    void appendChunk_wrongLength_throwsBadRequest() {
+        UploadSessionEntity session = session(0, new String[0]);
+        when(uploadSessionRepository.findById(session.getId())).thenReturn(Optional.of(session));
+
+        assertThrows(BadRequestException.class, () -> uploadSessionService.appendChunk(session.getId(), userId, 0,
+                new ByteArrayInputStream(new byte[0]), CHUNK - 1));
+    }
+
+    @Test
+    void appendChunk_otherUser_throwsForbidden() {
+        UploadSessionEntity session = session(0, new String[0]);
+        when(uploadSessionRepository.findById(session.getId())).thenReturn(Optional.of(session));
+
+        assertThrows(ForbiddenException.class, () -> uploadSessionService.appendChunk(session.getId(), UUID.randomUUID(), 0,
+                new ByteArrayInputStream(new byte[0]), CHUNK));
+    }
+
+    @Test
+    void complete_assemblesPartsAndRegistersImage() {
+        UploadSessionEntity session = session(0, new String[]{"etag-1", "etag-2", "etag-3"});
+        session.setReceivedBytes(session.getTotalSize());
+        UploadResponseDto response = new UploadResponseDto(UUID.randomUUID(), "url");
+        when(uploadSessionRepository.findById(session.getId())).thenReturn(Optional.of(session));
+        when(uploadSessionRepository.deleteByIdReturningCount(session.getId())).thenReturn(1);
+        when(imageService.registerImage("key", userId, "desc")).thenReturn(response);
+
+        assertSame(response, uploadSessionService.complete(session.getId(), userId));
+        InOrder order = inOrder(imageService, s3Service);
+        order.verify(imageService).registerImage("key", userId, "desc");
+        order.verify(s3Service).completeMultipart("key", "upload-1", List.of("etag-1", "etag-2", "etag-3"));
+    }
+
+    @Test
+    void complete_registrationFails_leavesMultipartUploadOpen() {
+        UploadSessionEntity session = session(0, new String[]{"etag-1", "etag-2", "etag-3"});
+        session.setReceivedBytes(session.getTotalSize());
+        when(uploadSessionRepository.findById(session.getId())).thenReturn(Optional.of(session));
+        when(uploadSessionRepository.deleteByIdReturningCount(session.getId())).thenReturn(1);
+        when(imageService.registerImage("key", userId, "desc")).thenThrow(new IllegalStateException("db down"));
+
+        assertThrows(IllegalStateException.class, () -> uploadSessionService.complete(session.getId(), userId));
+        verify(s3Service, never()).completeMultipart(anyString(), anyString(), any());
+    }
+
+    @Test
+    void complete_alreadyAssembled_treatsRetryAsDone() {
+        UploadSessionEntity session = session(0, new String[]{"etag-1", "etag-2", "etag-3"});
+        session.setReceivedBytes(session.getTotalSize());
+        UploadResponseDto response = new UploadResponseDto(UUID.randomUUID(), "url");
+        when(uploadSessionRepository.findById(session.getId())).thenReturn(Optional.of(session));
+        when(uploadSessionRepository.deleteByIdReturningCount(session.getId())).thenReturn(1);
+        when(imageService.registerImage("key", userId, "desc")).thenReturn(response);
+        doThrow(new S3WriteException("NoSuchUpload", null)).when(s3Service).completeMultipart(anyString(), anyString(), any());
+        when(s3Service.exists("key")).thenReturn(true);
+
+        assertSame(response, uploadSessionService.complete(session.getId(), userId));
+    }
+
+    @Test
+    void complete_s3Fails_propagates() {
+        UploadSessionEntity session = session(0, new String[]{"etag-1", "etag-2", "etag-3"});
+        session.setReceivedBytes(session.getTotalSize());
+        when(uploadSessionRepository.findById(session.getId())).thenReturn(Optional.of(session));
+        when(uploadSessionRepository.deleteByIdReturningCount(session.getId())).thenReturn(1);
+        doThrow(new S3WriteException("S3 down", null)).when(s3Service).completeMultipart(anyString(), anyString(), any());
+        when(s3Service.exists("key")).thenReturn(false);
+
+        assertThrows(S3WriteException.class, () -> uploadSessionService.complete(session.getId(), userId));
+    }
+
+    @Test
+    void complete_incomplete_throwsConflict() {
+        UploadSessionEntity session = session(CHUNK, new String[]{"etag-1"});
+        when(uploadSessionRepository.findById(session.getId())).thenReturn(Optional.of(session));
+
+        assertThrows(ConflictException.class, () -> uploadSessionService.complete(session.getId(), userId));
+        verify(s3Service, never()).completeMultipart(anyString(), anyString(), any());
+    }
+
+    @Test
+    void sweepExpired_abortsMultipartUpload() {
+        UploadSessionEntity session = session(0, new String[0]);
+        when(uploadSessionRepository.findTop100ByExpiresAtBeforeOrderByExpiresAt(any(Instant.class)))
+                .thenReturn(List.of(session));
+
+        assertEquals(1, uploadSessionService.sweepExpired());
+        verify(s3Service).abortMultipart("key", "upload-1");
+        verify(uploadSessionRepository).deleteById(session.getId());
+    }
+
+    private UploadSessionEntity session(long receivedBytes, String[] partEtags) {
+        return UploadSessionEntity.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .objectKey("key")
+                .s3UploadId("upload-1")
+                .contentType("image/png")
+                .description("desc")
+                .totalSize(2 * CHUNK + 1000)
+                .chunkSize(CHUNK)
+                .receivedBytes(receivedBytes)
+                .partEtags(partEtags)
+                .createdAt(Instant.now())
+                .expiresAt(Instant.now().plus(Duration.ofHours(1)))
+                .build();
+    }
+}
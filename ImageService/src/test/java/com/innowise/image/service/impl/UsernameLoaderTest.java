@@ -0,0 +1,161 @@
+package com.innowise.image.service.impl;
+
+import com.innowise.image.client.AuthServiceClient;
+import com.innowise.image.config.UsernameLookupProperties;
+import com.innowise.image.dto.UserLookupRequestDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UsernameLoaderTest {
+
+    private AuthServiceClient authServiceClient;
+    private ThreadPoolBulkhead bulkhead;
+    private UsernameLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        authServiceClient = mock(AuthServiceClient.class);
+        bulkhead = ThreadPoolBulkhead.of("auth-service", ThreadPoolBulkheadConfig.custom()
+                .coreThreadPoolSize(1)
+                .maxThreadPoolSize(1)
+                .queueCapacity(1)
+                .build());
+        loader = new UsernameLoader(authServiceClient, bulkhead,
+                new UsernameLookupProperties(100, Duration.ofMinutes(1), 1, 1, 2));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        bulkhead.close();
+    }
+
+    @Test
+    void getUsernames_fetchesDistinctIdsInBatches() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        UUID carol = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        Map<UUID, String> known = Map.of(alice, "alice", bob, "bob", carol, "carol");
+        when(authServiceClient.lookupUsernames(any())).thenAnswer(invocation -> {
+            UserLookupRequestDto request = invocation.getArgument(0);
+            return request.getIds().stream().filter(known::containsKey)
+                    .collect(Collectors.toMap(id -> id, known::get));
+        });
+
+        Map<UUID, String> names = loader.getUsernames(List.of(alice, bob, alice, carol, unknown, bob));
+
+        assertEquals(known, names);
+        ArgumentCaptor<UserLookupRequestDto> requests = ArgumentCaptor.forClass(UserLookupRequestDto.class);
+        verify(authServiceClient, times(2)).lookupUsernames(requests.capture());
+        Set<UUID> requested = new HashSet<>();
+        requests.getAllValues().forEach(request -> {
+            assertTrue(request.getIds().size() <= 2);
+            requested.addAll(request.getIds());
+        });
+        assertEquals(Set.of(alice, bob, carol, unknown), requested);
+
+        assertEquals("alice", loader.getUsername(alice));
+        verify(authServiceClient, times(2)).lookupUsernames(any());
+    }
+
+    @Test
+    void getUsername_concurrentCallersShareOneLookup() throws Exception {
+        UUID userId = UUID.randomUUID();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        when(authServiceClient.lookupUsernames(any())).thenAnswer(invocation -> {
+            calls.incrementAndGet();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return Map.of(userId, "alice");
+        });
+
+        List<CompletableFuture<String>> callers = List.of(
+                CompletableFuture.supplyAsync(() -> loader.getUsername(userId)),
+                CompletableFuture.supplyAsync(() -> loader.getUsername(userId)),
+                CompletableFuture.supplyAsync(() -> loader.getUsername(userId)));
+        Thread.sleep(100);
+        release.countDown();
+
+        for (CompletableFuture<String> caller : callers) {
+            assertEquals("alice", caller.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void getUsername_failureIsNotCached() {
+        UUID userId = UUID.randomUUID();
+        when(authServiceClient.lookupUsernames(any()))
+                .thenThrow(new IllegalStateException("auth service down"))
+                .thenReturn(Map.of(userId, "alice"));
+
+        assertNull(loader.getUsername(userId));
+        assertEquals("alice", loader.getUsername(userId));
+    }
+
+    @Test
+    void getUsernames_bulkheadFull_returnsCachedNamesOnly() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        UUID carol = UUID.randomUUID();
+        when(authServiceClient.lookupUsernames(any())).thenReturn(Map.of(alice, "alice"));
+        loader.getUsername(alice);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        bulkhead.executeRunnable(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        awaitQuietly(started);
+        bulkhead.executeRunnable(() -> awaitQuietly(release));
+        try {
+            Map<UUID, String> names = loader.getUsernames(List.of(alice, bob, carol));
+
+            assertEquals(Map.of(alice, "alice"), names);
+            verify(authServiceClient, times(1)).lookupUsernames(any());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void getUsername_unknownUser_isNull() {
+        when(authServiceClient.lookupUsernames(any())).thenReturn(Map.of());
+
+        assertNull(loader.getUsername(UUID.randomUUID()));
+    }
+}
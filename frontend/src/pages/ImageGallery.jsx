@@ -18,6 +18,7 @@ export default function ImageGallery() {
     const [page, setPage] = useState(0);
     const [likes, setLikes] = useState({});
     const [comments, setComments] = useState({});
+    const [commentCursors, setCommentCursors] = useState({});
     const [newComment, setNewComment] = useState({});
     const [showCommentInput, setShowCommentInput] = useState({});
     const [editingComment, setEditingComment] = useState({});
@@ -41,22 +42,17 @@ export default function ImageGallery() {
         const loadInteractions = async () => {
             const likesUpdates = {};
             const commentsUpdates = {};
+            const cursorUpdates = {};
 
             for (const img of all.content) {
-                try {
-                    const res = await api.get(`/images/${img.id}/likes/count`, {
-                        headers: { Authorization: `Bearer ${accessToken}` },
-                    });
-                    likesUpdates[img.id] = res.data.likesCount ?? 0;
-                } catch (e) {
-                    console.error("Error loading likes:", e);
-                }
+                likesUpdates[img.id] = img.likeCount ?? 0;
 
                 try {
                     const res = await api.get(`/images/${img.id}/comments`, {
                         headers: { Authorization: `Bearer ${accessToken}` },
                     });
-                    commentsUpdates[img.id] = res.data;
+                    commentsUpdates[img.id] = res.data.content;
+                    cursorUpdates[img.id] = res.data.last ? null : res.data.nextCursor;
                 } catch (e) {
                     console.error("Error loading comments:", e);
                 }
@@ -64,6 +60,7 @@ export default function ImageGallery() {
 
             setLikes(likesUpdates);
             setComments(commentsUpdates);
+            setCommentCursors(cursorUpdates);
         };
 
         loadInteractions();
@@ -71,10 +68,7 @@ export default function ImageGallery() {
 
     const handleLikeClick = async (imageId) => {
         try {
-            await api.post(`/images/${imageId}/likes`, null, {
-                headers: { Authorization: `Bearer ${accessToken}` },
-            });
-            const res = await api.get(`/images/${imageId}/likes/count`, {
+            const res = await api.post(`/images/${imageId}/likes`, null, {
                 headers: { Authorization: `Bearer ${accessToken}` },
             });
             setLikes((prev) => ({ ...prev, [imageId]: res.data.likesCount }));
@@ -83,6 +77,28 @@ export default function ImageGallery() {
         }
     };
 
+    const loadMoreComments = async (imageId) => {
+        const cursor = commentCursors[imageId];
+        if (!cursor) return;
+
+        try {
+            const res = await api.get(`/images/${imageId}/comments`, {
+                params: { cursor },
+                headers: { Authorization: `Bearer ${accessToken}` },
+            });
+            setComments((prev) => ({
+                ...prev,
+                [imageId]: [...(prev[imageId] || []), ...res.data.content],
+            }));
+            setCommentCursors((prev) => ({
+                ...prev,
+                [imageId]: res.data.last ? null : res.data.nextCursor,
+            }));
+        } catch (e) {
+            console.error("Error loading comments:", e);
+        }
+    };
+
     const handleCommentIconClick = (imageId) => {
         setShowCommentInput((prev) => ({
             ...prev,
@@ -303,6 +319,15 @@ export default function ImageGallery() {
                                 ))}
                             </div>
                         )}
+
+                        {commentCursors[image.id] && (
+                            <button
+                                onClick={() => loadMoreComments(image.id)}
+                                style={{ marginTop: "4px", fontSize: "12px" }}
+                            >
+                                Load more comments
+                            </button>
+                        )}
                     </div>
                 ))}
             </div>
@@ -1,4 +1,6 @@
 #!/bin/bash
 echo "Creating S3 bucket..."
 awslocal s3 mb s3://images
+echo "Allowing browser uploads via presigned URLs..."
+awslocal s3api put-bucket-cors --bucket images --cors-configuration '{"CORSRules":[{"AllowedOrigins":["*"],"AllowedMethods":["PUT","GET","HEAD"],"AllowedHeaders":["*"],"MaxAgeSeconds":3000}]}'
 echo "LocalStack S3 initialization completed"